@@ -0,0 +1,29 @@
+#!/bin/bash
+
+# a streaming replica of postgres-challenge (./run-docker.sh) on port 5433, for the "replica" profile
+primary="postgres-challenge"
+replica="postgres-challenge-replica"
+network="postgres-challenge-net"
+
+# both containers on one network, so the replica reaches the primary by name
+docker network inspect $network >/dev/null 2>&1 || docker network create $network
+docker network connect $network $primary 2>/dev/null
+
+# the primary has to accept replication connections (wal_level=replica is the image default)
+docker exec $primary bash -c "grep -q '^host replication' \$PGDATA/pg_hba.conf || echo 'host replication all all scram-sha-256' >> \$PGDATA/pg_hba.conf"
+docker exec -u postgres $primary psql -c "select pg_reload_conf()"
+
+if [ "$(docker container inspect -f '{{.State.Running}}' $replica 2>/dev/null)" = "true" ]; then
+  echo "$replica already running"
+elif docker container inspect $replica >/dev/null 2>&1; then
+  docker start $replica
+else
+  # first start: copy the primary with pg_basebackup (-R writes the standby config), then follow it
+  docker run --name $replica \
+    --network $network \
+    -e PGPASSWORD=password \
+    -p 5433:5432 \
+    -u postgres \
+    -d postgres:15 \
+    bash -c 'if [ ! -s "$PGDATA/PG_VERSION" ]; then pg_basebackup -h postgres-challenge -U postgres -D "$PGDATA" -R -X stream && chmod 700 "$PGDATA"; fi; exec postgres'
+fi
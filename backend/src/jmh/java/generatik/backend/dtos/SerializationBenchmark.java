@@ -0,0 +1,55 @@
+package generatik.backend.dtos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import generatik.backend.entities.booking.Status;
+import tools.jackson.databind.json.JsonMapper;
+
+// jackson cost of a booking list response: a default page, the max page and an export-sized list
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({ "100", "500", "10000" })
+  public int size;
+
+  private JsonMapper jsonMapper;
+  private List<BookingDTO> bookings;
+
+  @Setup
+  public void setUp() {
+    jsonMapper = JsonMapper.builder().build();
+    bookings = new ArrayList<>(size);
+    var created = LocalDateTime.now();
+    for (int i = 0; i < size; i++) {
+      var start = LocalDate.now().plusDays(i % 365);
+      bookings.add(new BookingDTO((long) i, (long) (i % 8) + 1, "Advertiser " + i, "advertiser" + i + "@acme.com",
+          start, start.plusDays(7), created, Status.values()[i % Status.values().length], 2100));
+    }
+  }
+
+  @Benchmark
+  public byte[] writeBookingList() {
+    return jsonMapper.writeValueAsBytes(bookings);
+  }
+}
@@ -0,0 +1,53 @@
+package generatik.backend.entities.booking;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ConsistentDateParameterValidator runs on every Booking constructor call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateValidatorBenchmark {
+
+  private ConsistentDateParameterValidator validator;
+  private Object[] valid;
+  private Object[] inThePast;
+  private Object[] missing;
+
+  @Setup
+  public void setUp() {
+    validator = new ConsistentDateParameterValidator();
+    valid = new Object[] { LocalDate.now().plusDays(3), LocalDate.now().plusDays(10) };
+    inThePast = new Object[] { LocalDate.now().minusDays(3), LocalDate.now().plusDays(10) };
+    missing = new Object[] { null, LocalDate.now().plusDays(10) };
+  }
+
+  @Benchmark
+  public boolean validDates() {
+    return validator.isValid(valid, null);
+  }
+
+  @Benchmark
+  public boolean startInThePast() {
+    return validator.isValid(inThePast, null);
+  }
+
+  @Benchmark
+  public boolean missingDate() {
+    return validator.isValid(missing, null);
+  }
+}
@@ -0,0 +1,66 @@
+package generatik.backend.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// cost of the per advertiser check every POST /booking-requests pays, for an advertiser with
+// tokens left, one out of tokens (the refused path) and many advertisers from several threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdvertiserRateLimiterBenchmark {
+  static final int ADVERTISERS = 10_000;
+
+  private AdvertiserRateLimiter unlimited;
+  private AdvertiserRateLimiter limited;
+  private String[] advertisers;
+
+  @State(Scope.Thread)
+  public static class Cursor {
+    int next;
+  }
+
+  @Setup
+  public void setUp() {
+    unlimited = new AdvertiserRateLimiter(new SimpleMeterRegistry(), 1e9, 1_000, 100_000);
+    limited = new AdvertiserRateLimiter(new SimpleMeterRegistry(), 1, 1, 100_000);
+    advertisers = new String[ADVERTISERS];
+    for (int i = 0; i < ADVERTISERS; i++) {
+      advertisers[i] = "email:advertiser" + i + "@acme.com";
+    }
+    limited.tryAcquire(advertisers[0]); // its only token
+  }
+
+  @Benchmark
+  public long admitted() {
+    return unlimited.tryAcquire(advertisers[0]);
+  }
+
+  @Benchmark
+  public long refused() {
+    return limited.tryAcquire(advertisers[0]);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long manyAdvertisers(Cursor cursor) {
+    cursor.next = (cursor.next + 1) % ADVERTISERS;
+    return unlimited.tryAcquire(advertisers[cursor.next]);
+  }
+}
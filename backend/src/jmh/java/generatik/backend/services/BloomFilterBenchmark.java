@@ -0,0 +1,62 @@
+package generatik.backend.services;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// the advertiser pre-check every booking creation pays instead of a select: one probe of a
+// filter full with 1M emails, for a new one (the usual case) and a taken one
+// setup also prints the measured false-positive rate and the memory of the filter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BloomFilterBenchmark {
+  static final int INSERTED = 1_000_000;
+  static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private BloomFilter filter;
+  private String taken;
+  private String absent;
+
+  @Setup
+  public void setUp() {
+    filter = BloomFilter.forCapacity(INSERTED, FALSE_POSITIVE_RATE);
+    for (int i = 0; i < INSERTED; i++) {
+      filter.add("advertiser" + i + "@acme.com");
+    }
+    int falsePositives = 0;
+    for (int i = 0; i < INSERTED; i++) {
+      if (filter.mightContain("prospect" + i + "@example.com")) {
+        falsePositives++;
+      }
+    }
+    System.out.printf("%n%d emails in %d KiB (%d hashes): %.3f%% false positives measured, %.3f%% expected%n",
+        INSERTED, filter.sizeInBytes() / 1024, filter.hashes(), 100.0 * falsePositives / INSERTED,
+        100 * filter.expectedFalsePositiveRate());
+
+    taken = "advertiser" + INSERTED / 2 + "@acme.com";
+    absent = "prospect" + INSERTED / 2 + "@example.com";
+  }
+
+  @Benchmark
+  public boolean newAdvertiser() {
+    return filter.mightContain(absent);
+  }
+
+  @Benchmark
+  public boolean takenAdvertiser() {
+    return filter.mightContain(taken);
+  }
+}
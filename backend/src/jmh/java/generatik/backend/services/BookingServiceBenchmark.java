@@ -0,0 +1,81 @@
+package generatik.backend.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import generatik.backend.dtos.BookedRangeDTO;
+import generatik.backend.dtos.BookingCreationDTO;
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.adspace.AdSpace;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.AvailabilityStatus;
+import generatik.backend.entities.adspace.City;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+// BookingService.createBooking minus the database: ad space lookup, price computation,
+// striped lock + conflict check against an index already holding `booked` ranges,
+// index insert and the entity -> dto mapping
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingServiceBenchmark {
+  static final long AD_SPACE_ID = 1L;
+  static final int BOOKED = 1_000; // two day ranges already in the index for the ad space
+
+  private AvailabilityIndex availabilityIndex;
+  private BookingService bookingService;
+  private BookingCreationDTO request;
+
+  @Setup
+  public void setUp() {
+    var adSpace = new AdSpace("Times Square", AdSpaceType.Billboard, 300, City.Bucuresti, "Piata Unirii 1",
+        AvailabilityStatus.Available);
+    adSpace.setId(AD_SPACE_ID);
+    var bookings = InMemoryRepositories.bookings();
+
+    availabilityIndex = new AvailabilityIndex(bookings);
+    var first = LocalDate.now().plusDays(10);
+    for (int i = 0; i < BOOKED; i++) {
+      var start = first.plusDays(3L * i);
+      availabilityIndex.add(new BookedRangeDTO(-1L - i, AD_SPACE_ID, start, start.plusDays(2)));
+    }
+
+    var jsonMapper = JsonMapper.builder().build();
+    var idempotencyKeys = InMemoryRepositories.idempotencyKeys(jsonMapper);
+    bookingService = new BookingService(bookings, InMemoryRepositories.adSpaces(Map.of(AD_SPACE_ID, adSpace)),
+        InMemoryRepositories.exports(), InMemoryRepositories.transitions(), idempotencyKeys,
+        InMemoryRepositories.outbox(jsonMapper), InMemoryRepositories.stats(),
+        new IdempotencyStore(idempotencyKeys, jsonMapper, 1, Duration.ofMinutes(1), Duration.ofSeconds(1)), jsonMapper,
+        availabilityIndex, new AdvertiserFilter(bookings, new SimpleMeterRegistry(), 1_000, 0.01), event -> {
+        }, InMemoryRepositories.noTransactions());
+
+    // the free day between two of the ranges, right in the middle of the index
+    var start = first.plusDays(3L * (BOOKED / 2) + 2);
+    request = new BookingCreationDTO(AD_SPACE_ID, "Acme Corp", "contact@acme.com", start, start.plusDays(1));
+  }
+
+  @Benchmark
+  public BookingDTO createBooking() {
+    var created = bookingService.createBooking(request);
+    // free the day again, every invocation sees the same index
+    availabilityIndex.remove(created.adSpaceId(), created.id(), created.startDate());
+    return created;
+  }
+}
@@ -0,0 +1,124 @@
+package generatik.backend.services;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.adspace.AdSpace;
+import generatik.backend.entities.booking.Booking;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.repos.AdSpaceRepository;
+import generatik.backend.repos.BookingExportRepository;
+import generatik.backend.repos.BookingRepository;
+import generatik.backend.repos.BookingStatsRepository;
+import generatik.backend.repos.BookingTransitionRepository;
+import generatik.backend.repos.IdempotencyKeyRepository;
+import generatik.backend.repos.OutboxRepository;
+import tools.jackson.databind.json.JsonMapper;
+
+// map-backed stand-ins for the repositories, so the benchmarks run without postgres
+// only the calls the measured code makes are implemented, anything else throws instead
+// of quietly returning null and making a benchmark measure nothing
+final class InMemoryRepositories {
+
+  private interface Calls {
+    Object call(String method, Object[] args);
+  }
+
+  private InMemoryRepositories() {
+  }
+
+  static AdSpaceRepository adSpaces(Map<Long, AdSpace> byId) {
+    return proxy(AdSpaceRepository.class, (method, args) -> switch (method) {
+      case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+      case "existsById" -> byId.containsKey((Long) args[0]);
+      default -> throw new UnsupportedOperationException("AdSpaceRepository." + method);
+    });
+  }
+
+  static BookingRepository bookings() {
+    var byId = new ConcurrentHashMap<Long, Booking>();
+    var ids = new AtomicLong();
+    return proxy(BookingRepository.class, (method, args) -> switch (method) {
+      case "save", "saveAndFlush" -> {
+        var booking = (Booking) args[0];
+        booking.setId(ids.incrementAndGet());
+        byId.put(booking.getId(), booking);
+        yield booking;
+      }
+      case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+      case "existsByIdAndStatusIn" -> byId.containsKey((Long) args[0])
+          && ((Collection<?>) args[1]).contains(byId.get((Long) args[0]).getStatus());
+      case "deleteById" -> byId.remove((Long) args[0]);
+      default -> throw new UnsupportedOperationException("BookingRepository." + method);
+    });
+  }
+
+  // the jdbc based repositories only need a DataSource when a query runs, which no benchmark does
+  static BookingExportRepository exports() {
+    return new BookingExportRepository(new SimpleDriverDataSource());
+  }
+
+  static BookingTransitionRepository transitions() {
+    return new BookingTransitionRepository(new SimpleDriverDataSource());
+  }
+
+  static BookingStatsRepository stats() {
+    return new BookingStatsRepository(new SimpleDriverDataSource());
+  }
+
+  static IdempotencyKeyRepository idempotencyKeys(JsonMapper jsonMapper) {
+    return new IdempotencyKeyRepository(new SimpleDriverDataSource(), jsonMapper);
+  }
+
+  // the outbox insert is on the measured path, it is dropped here instead of sent to a database
+  static OutboxRepository outbox(JsonMapper jsonMapper) {
+    return new OutboxRepository(new SimpleDriverDataSource(), jsonMapper) {
+      @Override
+      public void insert(BookingEvent.Type type, List<BookingDTO> bookings) {
+      }
+    };
+  }
+
+  static PlatformTransactionManager noTransactions() {
+    return new PlatformTransactionManager() {
+      @Override
+      public TransactionStatus getTransaction(TransactionDefinition definition) {
+        return new SimpleTransactionStatus();
+      }
+
+      @Override
+      public void commit(TransactionStatus status) {
+      }
+
+      @Override
+      public void rollback(TransactionStatus status) {
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T proxy(Class<T> type, Calls calls) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+      if (method.getDeclaringClass() == Object.class) {
+        return switch (method.getName()) {
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> "InMemory" + type.getSimpleName();
+        };
+      }
+      return calls.call(method.getName(), args);
+    });
+  }
+}
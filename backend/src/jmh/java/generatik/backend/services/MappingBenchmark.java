@@ -0,0 +1,80 @@
+package generatik.backend.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import generatik.backend.dtos.AdSpaceDTO;
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.adspace.AdSpace;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.AvailabilityStatus;
+import generatik.backend.entities.adspace.City;
+import generatik.backend.entities.booking.Booking;
+
+// entity -> dto mapping of the services, one entity and a full page
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+  static final int PAGE = 100; // BookingController.DEFAULT_PAGE_SIZE
+
+  private AdSpace adSpace;
+  private List<Booking> bookings;
+  private List<AdSpace> adSpaces;
+
+  @Setup
+  public void setUp() {
+    bookings = new ArrayList<>();
+    adSpaces = new ArrayList<>();
+    for (int i = 0; i < PAGE; i++) {
+      var space = new AdSpace("Space " + i, AdSpaceType.Billboard, 100 + i, City.Cluj, "Str. Memorandumului " + i,
+          AvailabilityStatus.Available);
+      space.setId((long) i);
+      adSpaces.add(space);
+
+      var start = LocalDate.now().plusDays(i);
+      var booking = new Booking("Advertiser " + i, "advertiser" + i + "@acme.com", start, start.plusDays(7),
+          7 * space.getPricePerDay());
+      booking.setId((long) i);
+      booking.setAdSpace(space);
+      bookings.add(booking);
+    }
+    adSpace = adSpaces.get(0);
+  }
+
+  @Benchmark
+  public BookingDTO bookingToDTO() {
+    return BookingService.toDTO(bookings.get(0));
+  }
+
+  @Benchmark
+  public AdSpaceDTO adSpaceToDTO() {
+    return AdSpaceService.toDTO(adSpace);
+  }
+
+  @Benchmark
+  public List<BookingDTO> bookingPageToDTO() {
+    return bookings.stream().map(BookingService::toDTO).toList();
+  }
+
+  @Benchmark
+  public List<AdSpaceDTO> adSpacePageToDTO() {
+    return adSpaces.stream().map(AdSpaceService::toDTO).toList();
+  }
+}
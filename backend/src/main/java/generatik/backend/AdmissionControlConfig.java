@@ -0,0 +1,74 @@
+package generatik.backend;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import generatik.backend.routers.RetryLaterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// global load shedding in front of every api call: once more than max-waiting requests are
+// already queued for a hikari connection, a new one gets a 503 with Retry-After right away
+// instead of joining the queue (and holding a thread) until connection-timeout
+// the check is two volatile reads, per advertiser limits are in AdvertiserRateLimiter
+@Configuration
+public class AdmissionControlConfig {
+  private static final Logger logger = LoggerFactory.getLogger(AdmissionControlConfig.class);
+  static final String SHED = "http.server.requests.shed";
+
+  @Bean
+  WebMvcConfigurer admissionControl(ObjectProvider<DataSource> dataSource, MeterRegistry registry,
+      @Value("${admission.max-waiting-for-connection}") int maxWaiting) {
+    var shed = Counter.builder(SHED)
+        .description("Requests refused with a 503, connection pool saturated")
+        .register(registry);
+    var hikari = dataSource.getIfAvailable(); // the pool behind the sql counting / replica wrappers
+    HikariDataSource pool;
+    try {
+      pool = hikari == null ? null : hikari.unwrap(HikariDataSource.class);
+    } catch (SQLException ex) {
+      logger.warn("No hikari pool behind the datasource, load shedding is off");
+      pool = null;
+    }
+    var hikariPool = pool;
+
+    return new WebMvcConfigurer() {
+      @Override
+      public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new HandlerInterceptor() {
+          @Override
+          public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            HikariPoolMXBean bean = hikariPool == null ? null : hikariPool.getHikariPoolMXBean(); // null until started
+            if (bean != null && bean.getThreadsAwaitingConnection() > maxWaiting) {
+              shed.increment();
+              throw new RetryLaterException(
+                  HttpStatus.SERVICE_UNAVAILABLE,
+                  "Server is overloaded, try again later",
+                  TimeUnit.SECONDS.toNanos(1));
+            }
+            return true;
+          }
+        }).addPathPatterns("/api/**");
+      }
+    };
+  }
+}
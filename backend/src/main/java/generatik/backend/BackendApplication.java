@@ -6,6 +6,7 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import generatik.backend.entities.adspace.AdSpace;
 import generatik.backend.entities.adspace.AdSpaceType;
@@ -17,6 +18,7 @@ import generatik.backend.repos.AdSpaceRepository;
 import generatik.backend.repos.BookingRepository;
 
 @SpringBootApplication
+@EnableScheduling
 public class BackendApplication {
 
   public static void main(String[] args) {
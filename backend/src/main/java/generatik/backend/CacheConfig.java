@@ -0,0 +1,43 @@
+package generatik.backend;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+  // single ad spaces by (catalogue version, id)
+  public static final String AD_SPACES = "adSpaces";
+  // listing pages, keyed by (catalogue version, type, city, after, limit)
+  public static final String AD_SPACE_PAGES = "adSpacePages";
+
+  @Bean
+  public CacheManager cacheManager(
+      @Value("${cache.ad-spaces.max-size}") long adSpacesMaxSize,
+      @Value("${cache.ad-spaces.ttl}") Duration adSpacesTtl,
+      @Value("${cache.ad-space-pages.max-size}") long pagesMaxSize,
+      @Value("${cache.ad-space-pages.ttl}") Duration pagesTtl) {
+    var manager = new CaffeineCacheManager();
+    manager.setAllowNullValues(false); // a missing ad space is never cached
+    // bounded by size and ttl, the ttl only matters for changes made behind the service's back
+    manager.registerCustomCache(AD_SPACES, Caffeine.newBuilder()
+        .maximumSize(adSpacesMaxSize)
+        .expireAfterWrite(adSpacesTtl)
+        .recordStats()
+        .build());
+    manager.registerCustomCache(AD_SPACE_PAGES, Caffeine.newBuilder()
+        .maximumSize(pagesMaxSize)
+        .expireAfterWrite(pagesTtl)
+        .recordStats()
+        .build());
+    return manager;
+  }
+}
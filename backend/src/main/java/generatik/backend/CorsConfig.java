@@ -16,7 +16,9 @@ public class CorsConfig {
         registry.addMapping("/api/**")
             .allowedOrigins("http://localhost:3000", "http://localhost:5173", "http://localhost:8080")
             .allowedMethods("GET", "POST", "PATCH", "PUT", "DELETE", "OPTIONS")
-            .allowedHeaders("*");
+            .allowedHeaders("*")
+            .exposedHeaders("ETag", "Idempotent-Replayed", "Retry-After", "X-Next-Cursor", "X-SQL-Statements",
+                "X-SQL-Time");
       }
     };
   }
@@ -0,0 +1,84 @@
+package generatik.backend;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// which database a read-only transaction runs on once read replicas are configured
+// (ReplicaRoutingConfig): one of the replicas, unless the thread is pinned to the primary
+// pinned are requests that write (they read what they are about to change) or that ask for
+// their own writes (X-Read-Your-Writes), and reads whose result outlives the replica lag
+// (in-memory indexes), see onPrimary; the catalogue caches check the replica caught up instead
+public final class ReplicaRouting {
+  // null outside a request, else whether this request reads from the primary
+  private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+  private ReplicaRouting() {
+  }
+
+  static void start(boolean primary) {
+    PRIMARY.set(primary);
+  }
+
+  static void stop() {
+    PRIMARY.remove();
+  }
+
+  static boolean pinned() {
+    return Boolean.TRUE.equals(PRIMARY.get());
+  }
+
+  // runs the action with its reads on the primary, replicas configured or not
+  // the connection is only taken at the first statement, so this also works around a
+  // method that is @Transactional(readOnly = true) itself
+  public static <T> T onPrimary(Supplier<T> action) {
+    var previous = PRIMARY.get();
+    PRIMARY.set(true);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        PRIMARY.remove();
+      } else {
+        PRIMARY.set(previous);
+      }
+    }
+  }
+
+  public static void onPrimary(Runnable action) {
+    onPrimary(() -> {
+      action.run();
+      return null;
+    });
+  }
+
+  // the read-only side of the LazyConnectionDataSourceProxy: the replicas in turn, or the
+  // primary when pinned
+  static final class ReplicaDataSource extends AbstractRoutingDataSource {
+    private static final String PRIMARY_KEY = "primary";
+    private final AtomicInteger next = new AtomicInteger();
+    private final int replicas;
+
+    ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas) {
+      var targets = new HashMap<Object, Object>();
+      targets.put(PRIMARY_KEY, primary);
+      for (int i = 0; i < replicas.size(); i++) {
+        targets.put(i, replicas.get(i));
+      }
+      this.replicas = replicas.size();
+      setTargetDataSources(targets);
+      setDefaultTargetDataSource(primary);
+      afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+      return pinned() ? PRIMARY_KEY : Math.floorMod(next.getAndIncrement(), replicas);
+    }
+  }
+}
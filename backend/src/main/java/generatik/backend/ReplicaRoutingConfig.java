@@ -0,0 +1,110 @@
+package generatik.backend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// read replicas, only when datasource.replica.urls is set (see application-replica.properties)
+// the primary datasource is wrapped in a LazyConnectionDataSourceProxy: the connection is only
+// taken at the first statement, when the transaction is known to be read-only or not, and
+// read-only ones get theirs from the replicas (ReplicaRouting). Everything else, liquibase and
+// all writes included, stays on spring.datasource.url
+@Configuration
+@ConditionalOnProperty("datasource.replica.urls")
+public class ReplicaRoutingConfig {
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingConfig.class);
+  // any value: this request reads from the primary, e.g. a client reloading what it just changed
+  static final String READ_YOUR_WRITES_HEADER = "X-Read-Your-Writes";
+
+  // static: post-processors are created before the rest of the configuration
+  @Bean
+  static ReplicaRoutingPostProcessor replicaRouting(Environment environment) {
+    return new ReplicaRoutingPostProcessor(environment);
+  }
+
+  @Bean
+  OncePerRequestFilter replicaRoutingFilter() {
+    return new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        ReplicaRouting.start(write || request.getHeader(READ_YOUR_WRITES_HEADER) != null);
+        try {
+          chain.doFilter(request, response);
+        } finally {
+          ReplicaRouting.stop();
+        }
+      }
+    };
+  }
+
+  // ordered, so it runs before the (unordered) sql counting wrapper and statements on the
+  // replicas are counted too
+  static final class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+    private final Environment environment;
+    private final List<HikariDataSource> replicas = new ArrayList<>();
+
+    ReplicaRoutingPostProcessor(Environment environment) {
+      this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!(bean instanceof DataSource primary) || bean instanceof DelegatingDataSource) {
+        return bean;
+      }
+      var urls = environment.getRequiredProperty("datasource.replica.urls", String[].class);
+      for (var url : urls) {
+        var replica = new HikariDataSource(); // connects on first use, a replica down at startup doesn't stop the app
+        replica.setPoolName("replica-" + replicas.size());
+        replica.setJdbcUrl(url.trim());
+        replica.setUsername(environment.getProperty("datasource.replica.username",
+            environment.getProperty("spring.datasource.username")));
+        replica.setPassword(environment.getProperty("datasource.replica.password",
+            environment.getProperty("spring.datasource.password")));
+        replica.setMaximumPoolSize(environment.getProperty("spring.datasource.hikari.maximum-pool-size",
+            Integer.class, 10));
+        replica.setReadOnly(true);
+        replicas.add(replica);
+      }
+      logger.info("Read-only transactions go to {} replica(s)", replicas.size());
+
+      var routing = new LazyConnectionDataSourceProxy(primary);
+      routing.setReadOnlyDataSource(new ReplicaRouting.ReplicaDataSource(primary, replicas));
+      return routing;
+    }
+
+    @Override
+    public int getOrder() {
+      return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void destroy() {
+      replicas.forEach(HikariDataSource::close);
+    }
+  }
+}
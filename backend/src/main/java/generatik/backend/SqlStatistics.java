@@ -0,0 +1,114 @@
+package generatik.backend;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+// statements run and time spent in jdbc by the current request, counted at the jdbc level
+// so jpa and the JdbcTemplate repositories are both seen
+// one round trip = one count: execute / executeQuery / executeUpdate / executeBatch
+// only counts between start() and stop() on the same thread (SqlStatisticsConfig's filter),
+// work on other threads (startup, streamed exports) is not attributed to anything
+public final class SqlStatistics {
+
+  public static final class Current {
+    private int statements;
+    private long nanos;
+
+    public int statements() {
+      return statements;
+    }
+
+    public long nanos() {
+      return nanos;
+    }
+  }
+
+  private static final ThreadLocal<Current> CURRENT = new ThreadLocal<>();
+
+  private SqlStatistics() {
+  }
+
+  public static Current start() {
+    var current = new Current();
+    CURRENT.set(current);
+    return current;
+  }
+
+  public static void stop() {
+    CURRENT.remove();
+  }
+
+  // null outside of a request
+  public static Current current() {
+    return CURRENT.get();
+  }
+
+  static void record(long nanos) {
+    var current = CURRENT.get();
+    if (current != null) {
+      current.statements++;
+      current.nanos += nanos;
+    }
+  }
+
+  // hands out connections whose statements report to record(); everything else goes straight
+  // to the real pool, unwrap() included, so pool metrics still find hikari behind it
+  static class CountingDataSource extends DelegatingDataSource {
+
+    CountingDataSource(DataSource target) {
+      super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return counting(super.getConnection(username, password));
+    }
+
+    private static Connection counting(Connection connection) {
+      return (Connection) Proxy.newProxyInstance(SqlStatistics.class.getClassLoader(),
+          new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            var result = invoke(connection, method, args);
+            return result instanceof Statement statement ? counting(statement, method.getReturnType()) : result;
+          });
+    }
+
+    private static Object counting(Statement statement, Class<?> type) {
+      var iface = type == CallableStatement.class || type == PreparedStatement.class ? type : Statement.class;
+      return Proxy.newProxyInstance(SqlStatistics.class.getClassLoader(), new Class<?>[] { iface },
+          (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+              return invoke(statement, method, args);
+            }
+            long begin = System.nanoTime();
+            try {
+              return invoke(statement, method, args);
+            } finally {
+              record(System.nanoTime() - begin);
+            }
+          });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException ex) {
+        throw ex.getCause(); // the driver's SQLException, unchanged
+      }
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package generatik.backend;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// per request sql accounting, instead of echoing every statement (spring.jpa.show-sql):
+// the statements / jdbc time of each request go to two meters per endpoint, to the
+// X-SQL-Statements / X-SQL-Time headers (SqlStatisticsAdvice) and to a warning past the threshold
+@Configuration
+public class SqlStatisticsConfig {
+  private static final Logger logger = LoggerFactory.getLogger(SqlStatisticsConfig.class);
+  static final String STATEMENTS = "http.server.requests.sql.statements";
+  static final String TIME = "http.server.requests.sql.time";
+
+  // static: post-processors are created before the rest of the configuration
+  @Bean
+  static BeanPostProcessor countingDataSource() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource && !(bean instanceof SqlStatistics.CountingDataSource)
+            ? new SqlStatistics.CountingDataSource(dataSource)
+            : bean;
+      }
+    };
+  }
+
+  @Bean
+  OncePerRequestFilter sqlStatisticsFilter(ObjectProvider<MeterRegistry> registry,
+      @Value("${sql.statements.warn-threshold}") int warnThreshold) {
+    return new OncePerRequestFilter() {
+      @Override
+      protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+          throws ServletException, IOException {
+        var current = SqlStatistics.start();
+        try {
+          chain.doFilter(request, response);
+        } finally {
+          SqlStatistics.stop();
+          var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+          var endpoint = uri == null ? "UNKNOWN" : uri.toString(); // same uri tag as http.server.requests
+          if (current.statements() > warnThreshold) { // not the filter's own commons-logging logger
+            SqlStatisticsConfig.logger.warn("{} {} ran {} sql statements ({} ms in jdbc), threshold is {}",
+                request.getMethod(), request.getRequestURI(), current.statements(),
+                TimeUnit.NANOSECONDS.toMillis(current.nanos()), warnThreshold);
+          }
+          registry.ifAvailable(meters -> {
+            DistributionSummary.builder(STATEMENTS)
+                .description("SQL statements run by one request")
+                .tag("method", request.getMethod())
+                .tag("uri", endpoint)
+                .register(meters)
+                .record(current.statements());
+            Timer.builder(TIME)
+                .description("Time one request spent in JDBC calls")
+                .tag("method", request.getMethod())
+                .tag("uri", endpoint)
+                .register(meters)
+                .record(current.nanos(), TimeUnit.NANOSECONDS);
+          });
+        }
+      }
+    };
+  }
+}
@@ -0,0 +1,129 @@
+package generatik.backend;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.AvailabilityStatus;
+import generatik.backend.entities.adspace.City;
+import generatik.backend.repos.BookingStatsRepository;
+
+// "loadtest" profile only: fills the db with a production sized dataset before the app
+// starts serving (and before the availability index / calendar are built from it)
+// rows are generated inside postgres with generate_series, nothing goes over the wire
+// but the statement, in chunks so progress shows up in the log
+@Component
+@Profile("loadtest")
+@Order(Ordered.LOWEST_PRECEDENCE) // after seedDatabase
+public class SyntheticDataset implements ApplicationRunner {
+  private static final Logger logger = LoggerFactory.getLogger(SyntheticDataset.class);
+  static final int CHUNK = 500_000;
+  static final int SLOT_DAYS = 7; // every ad space gets one booking per week, 1..6 days long
+
+  private final JdbcTemplate jdbcTemplate;
+  private final BookingStatsRepository bookingStatsRepository;
+  private final int adSpaces;
+  private final long bookings;
+
+  public SyntheticDataset(JdbcTemplate jdbcTemplate, BookingStatsRepository bookingStatsRepository,
+      @Value("${loadtest.ad-spaces}") int adSpaces, @Value("${loadtest.bookings}") long bookings) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.bookingStatsRepository = bookingStatsRepository;
+    this.adSpaces = adSpaces;
+    this.bookings = bookings;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    var existing = jdbcTemplate.queryForObject("select count(*) from ad_spaces", Long.class);
+    if (existing >= adSpaces) {
+      logger.info("Synthetic dataset already there ({} ad spaces), not generating", existing);
+      return;
+    }
+
+    long begin = System.nanoTime();
+    // start above both the rows and what hibernate may already have taken from the pooled sequences
+    long firstAdSpace = nextFreeId("ad_spaces", "ad_spaces_seq") + 1;
+    insertAdSpaces(firstAdSpace);
+    insertBookings(firstAdSpace, nextFreeId("bookings", "bookings_seq") + 1);
+    jdbcTemplate.execute("analyze ad_spaces");
+    jdbcTemplate.execute("analyze bookings");
+    bookingStatsRepository.rebuild(); // the rows above never went through an approve / reject
+    logger.info("Synthetic dataset generated in {} s", (System.nanoTime() - begin) / 1_000_000_000);
+  }
+
+  // every city / type combination, 9 in 10 available
+  private void insertAdSpaces(long firstId) {
+    jdbcTemplate.update("""
+        insert into ad_spaces (id, name, price_per_day, city, address, availability_status, type)
+        select ? + g, 'Space ' || g, 50 + (g * 37) % 451,
+          (?::varchar[])[1 + g % ?],
+          'Str. Generata ' || g,
+          case when g % 10 = 0 then ? else ? end,
+          (?::varchar[])[1 + (g / ?) % ?]
+        from generate_series(0, ? - 1) g
+        """,
+        ps -> {
+          var cities = Arrays.stream(City.values()).map(Enum::name).toArray();
+          var types = Arrays.stream(AdSpaceType.values()).map(Enum::name).toArray();
+          ps.setLong(1, firstId);
+          ps.setArray(2, ps.getConnection().createArrayOf("varchar", cities));
+          ps.setInt(3, cities.length);
+          ps.setString(4, AvailabilityStatus.Maintenance.name());
+          ps.setString(5, AvailabilityStatus.Available.name());
+          ps.setArray(6, ps.getConnection().createArrayOf("varchar", types));
+          ps.setInt(7, cities.length);
+          ps.setInt(8, types.length);
+          ps.setInt(9, adSpaces);
+        });
+    resetSequence("ad_spaces_seq", firstId + adSpaces - 1);
+    logger.info("Generated {} ad spaces", adSpaces);
+  }
+
+  // booking g goes to ad space g % adSpaces, in week g / adSpaces counted from half the span in
+  // the past, so there is history, current and future bookings; never overlapping, so the
+  // exclusion constraint holds; 6 in 10 approved, 2 pending, 2 rejected
+  private void insertBookings(long firstAdSpace, long firstId) {
+    long weeks = (bookings + adSpaces - 1) / adSpaces;
+    var firstDay = LocalDate.now().minusDays(weeks * SLOT_DAYS / 2);
+    for (long from = 0; from < bookings; from += CHUNK) {
+      long to = Math.min(bookings, from + CHUNK) - 1;
+      jdbcTemplate.update("""
+          insert into bookings (id, ad_space_id, advertiser_name, advertiser_email, start_date, end_date,
+            created_at, status, total_cost)
+          select ? + g, a.id, 'lt' || g, 'lt' || g || '@load.test',
+            ?::date + (g / ?)::int * ?, ?::date + (g / ?)::int * ? + 1 + (g % ?)::int,
+            now(),
+            case when g % 10 < 6 then 'Approved' when g % 10 < 8 then 'Pending' else 'Rejected' end,
+            a.price_per_day * (1 + (g % ?)::int)
+          from generate_series(?::bigint, ?::bigint) g
+          join ad_spaces a on a.id = ? + g % ?
+          """,
+          firstId, firstDay, adSpaces, SLOT_DAYS, firstDay, adSpaces, SLOT_DAYS, SLOT_DAYS - 1,
+          SLOT_DAYS - 1, from, to, firstAdSpace, adSpaces);
+      logger.info("Generated {} / {} bookings", to + 1, bookings);
+    }
+    resetSequence("bookings_seq", firstId + bookings - 1);
+  }
+
+  private long nextFreeId(String table, String sequence) {
+    return jdbcTemplate.queryForObject("select greatest((select coalesce(max(id), 0) from " + table
+        + "), (select last_value from " + sequence + "))", Long.class);
+  }
+
+  // pooled optimizer: the next nextval (value + 50) hands hibernate ids value + 1 .. value + 50
+  private void resetSequence(String sequence, long lastUsedId) {
+    jdbcTemplate.queryForObject("select setval(?, ?)", Long.class, sequence, lastUsedId);
+  }
+}
@@ -0,0 +1,7 @@
+package generatik.backend.dtos;
+
+// the unique pair of a booking, what the advertiser filter is built from
+public record AdvertiserDTO(
+    String name,
+    String email) {
+}
@@ -0,0 +1,21 @@
+package generatik.backend.dtos;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import generatik.backend.entities.adspace.*;
+
+// an ad space free for the whole [from, to) window, with what booking it would cost
+public record AvailableAdSpaceDTO(
+    @JsonProperty("id") Long id,
+    @JsonProperty("name") String name,
+    @JsonProperty("pricePerDay") Integer pricePerDay,
+    @JsonProperty("city") City city,
+    @JsonProperty("address") String address,
+    @JsonProperty("availabilityStatus") AvailabilityStatus availabilityStatus,
+    @JsonProperty("type") AdSpaceType type,
+    @JsonProperty("from") LocalDate from,
+    @JsonProperty("to") LocalDate to,
+    @JsonProperty("totalPrice") Integer totalPrice) {
+}
@@ -0,0 +1,11 @@
+package generatik.backend.dtos;
+
+import java.time.LocalDate;
+
+// the part of a booking that blocks an ad space: [startDate, endDate)
+public record BookedRangeDTO(
+    Long bookingId,
+    Long adSpaceId,
+    LocalDate startDate,
+    LocalDate endDate) {
+}
@@ -0,0 +1,12 @@
+package generatik.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// outcome of one item of a bulk request: the http status it would have had on its own,
+// the booking when it succeeded, the reason when it did not
+public record BookingResultDTO(
+    @JsonProperty("index") Integer index,
+    @JsonProperty("status") Integer status,
+    @JsonProperty("booking") BookingDTO booking,
+    @JsonProperty("message") String message) {
+}
@@ -0,0 +1,12 @@
+package generatik.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheStatsDTO(
+    @JsonProperty("name") String name,
+    @JsonProperty("size") Long size,
+    @JsonProperty("hits") Long hits,
+    @JsonProperty("misses") Long misses,
+    @JsonProperty("evictions") Long evictions,
+    @JsonProperty("hitRate") Double hitRate) {
+}
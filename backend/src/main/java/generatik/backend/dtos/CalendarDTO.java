@@ -0,0 +1,15 @@
+package generatik.backend.dtos;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// occupancy of one or more ad spaces over [from, to)
+// booked has one char per day starting at from: '1' when (any of) the ad space(s) is taken, '0' when free
+public record CalendarDTO(
+    @JsonProperty("adSpaceIds") List<Long> adSpaceIds,
+    @JsonProperty("from") LocalDate from,
+    @JsonProperty("to") LocalDate to,
+    @JsonProperty("booked") String booked) {
+}
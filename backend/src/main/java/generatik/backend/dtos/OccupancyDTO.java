@@ -0,0 +1,21 @@
+package generatik.backend.dtos;
+
+import java.time.YearMonth;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.City;
+
+// share of the ad space days of a city / type held by approved bookings over the months [from, to]
+// availableDays is every ad space of the catalogue today times the days of the period
+public record OccupancyDTO(
+    @JsonProperty("city") City city,
+    @JsonProperty("type") AdSpaceType type,
+    @JsonProperty("from") YearMonth from,
+    @JsonProperty("to") YearMonth to,
+    @JsonProperty("adSpaces") long adSpaces,
+    @JsonProperty("bookedDays") long bookedDays,
+    @JsonProperty("availableDays") long availableDays,
+    @JsonProperty("occupancy") double occupancy) {
+}
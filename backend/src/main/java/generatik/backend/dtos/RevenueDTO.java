@@ -0,0 +1,15 @@
+package generatik.backend.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// approved / rejected bookings of one city, ad space type or month ("2026-03") over a period
+// a booking spanning several months counts in the month it starts, its days and revenue are
+// split over the months they fall in
+public record RevenueDTO(
+    @JsonProperty("group") String group,
+    @JsonProperty("approvedBookings") long approvedBookings,
+    @JsonProperty("bookedDays") long bookedDays,
+    @JsonProperty("revenue") long revenue,
+    @JsonProperty("rejectedBookings") long rejectedBookings,
+    @JsonProperty("rejectedRevenue") long rejectedRevenue) {
+}
@@ -8,25 +8,31 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
 @Entity(name = "bookings")
 @Table(name = "bookings", indexes = {
-    @Index(name = "idx_bookings_status", columnList = "status"),
+    // id too, so status pages come out of the index in order
+    @Index(name = "idx_bookings_status", columnList = "status,id"),
     @Index(name = "idx_bookings_ad_space_id", columnList = "ad_space_id")
 })
 public class Booking {
 
+  // pooled optimizer: bookings_seq increments by 50 and one nextval hands out 50 ids,
+  // so batched inserts don't need a sequence round trip per row
   @Id
-  @GeneratedValue(strategy = GenerationType.AUTO)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+  @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
   private Long id;
 
   @Column(name = "advertiser_name", length = 20, nullable = false, unique = true)
@@ -53,7 +59,7 @@ public class Booking {
   @Column(name = "total_cost")
   private Integer totalCost;
 
-  @ManyToOne(optional = false)
+  @ManyToOne(optional = false, fetch = FetchType.LAZY) // lazy: most reads only need the ad_space_id
   @JoinColumn(name = "ad_space_id", nullable = false)
   private AdSpace adSpace;
 
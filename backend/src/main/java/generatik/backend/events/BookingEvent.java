@@ -0,0 +1,18 @@
+package generatik.backend.events;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.City;
+
+// published by BookingService after a booking is created or changes status
+// listeners that must only see committed data use @TransactionalEventListener
+// city / adSpaceType are the booked ad space's, read with the booking (null when it was deleted),
+// so a listener doesn't have to look the ad space up after commit
+public record BookingEvent(Type type, BookingDTO booking, City city, AdSpaceType adSpaceType) {
+
+  public enum Type {
+    Created,
+    Approved,
+    Rejected
+  }
+}
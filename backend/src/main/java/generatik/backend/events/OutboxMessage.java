@@ -0,0 +1,16 @@
+package generatik.backend.events;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+// one row of booking_outbox as handed to an OutboxSink; delivery is at-least-once, so a
+// consumer drops the messages it has already seen: by the set of ids seen (or by bookingId +
+// type, a booking gets each type at most once), never by "id <= the highest id seen"
+// ids are taken at insert, not at commit, so a lower id can commit after a higher one was
+// relayed, and relays on several nodes deliver their batches in any order: the Created and
+// the Approved of one booking can arrive the other way around
+// booking is the BookingDTO json as it was committed
+public record OutboxMessage(long id, BookingEvent.Type type, long bookingId, @JsonRawValue String booking,
+    Instant createdAt) {
+}
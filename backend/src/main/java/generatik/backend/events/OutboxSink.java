@@ -0,0 +1,12 @@
+package generatik.backend.events;
+
+import java.io.IOException;
+import java.util.List;
+
+// where OutboxRelay delivers booking events (outbox.sink picks the implementation)
+// deliver returns once the messages are durably handed over, an exception leaves them in
+// the outbox and the same messages come again on the next run
+public interface OutboxSink {
+
+  void deliver(List<OutboxMessage> messages) throws IOException;
+}
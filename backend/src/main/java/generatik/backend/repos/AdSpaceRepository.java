@@ -1,10 +1,62 @@
 package generatik.backend.repos;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import generatik.backend.dtos.AdSpaceDTO;
 import generatik.backend.entities.adspace.AdSpace;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.AvailabilityStatus;
+import generatik.backend.entities.adspace.City;
+import generatik.backend.entities.booking.Status;
 
 @Repository
 public interface AdSpaceRepository extends JpaRepository<AdSpace, Long> {
+
+  // keyset pages ordered by id: "id > :afterId" + limit, so every page costs the
+  // same no matter how deep the client scrolls (no OFFSET scan)
+  // one method per filter combination, so the planner always sees plain equality
+  // predicates and can use idx_ad_spaces_city_type
+  List<AdSpace> findByAvailabilityStatusAndIdGreaterThanOrderByIdAsc(
+      AvailabilityStatus availabilityStatus, Long afterId, Limit limit);
+
+  List<AdSpace> findByAvailabilityStatusAndTypeAndIdGreaterThanOrderByIdAsc(
+      AvailabilityStatus availabilityStatus, AdSpaceType type, Long afterId, Limit limit);
+
+  List<AdSpace> findByAvailabilityStatusAndCityAndIdGreaterThanOrderByIdAsc(
+      AvailabilityStatus availabilityStatus, City city, Long afterId, Limit limit);
+
+  List<AdSpace> findByAvailabilityStatusAndCityAndTypeAndIdGreaterThanOrderByIdAsc(
+      AvailabilityStatus availabilityStatus, City city, AdSpaceType type, Long afterId, Limit limit);
+
+  // available spaces of a city + type with no Pending / Approved booking overlapping
+  // [from, to), answered as one anti-join (not exists) instead of a query per space
+  @Query("""
+      select new generatik.backend.dtos.AdSpaceDTO(
+        a.id, a.name, a.pricePerDay, a.city, a.address, a.availabilityStatus, a.type)
+      from ad_spaces a
+      where a.availabilityStatus = :availabilityStatus and a.city = :city and a.type = :type and a.id > :afterId
+        and not exists (
+          select 1 from bookings b
+          where b.adSpace.id = a.id
+            and b.status in :blocking
+            and b.startDate < :to and b.endDate > :from)
+      order by a.id
+      """)
+  List<AdSpaceDTO> findFreeBetween(
+      @Param("availabilityStatus") AvailabilityStatus availabilityStatus,
+      @Param("city") City city,
+      @Param("type") AdSpaceType type,
+      @Param("blocking") Collection<Status> blocking,
+      @Param("from") LocalDate from,
+      @Param("to") LocalDate to,
+      @Param("afterId") Long afterId,
+      Limit limit);
 }
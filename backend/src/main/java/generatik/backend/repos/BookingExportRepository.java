@@ -0,0 +1,66 @@
+package generatik.backend.repos;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.booking.Status;
+
+// plain jdbc on purpose: the export must not go through the persistence context,
+// otherwise every row would stay managed until the end of the request
+@Repository
+public class BookingExportRepository {
+  static final int FETCH_SIZE = 1_000;
+
+  private static final String SELECT_BOOKINGS = """
+      select id, ad_space_id, advertiser_name, advertiser_email, start_date, end_date, created_at, status, total_cost
+      from bookings
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public BookingExportRepository(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    // postgres only uses a server side cursor when autocommit is off (the
+    // transaction below) and a fetch size is set, otherwise it buffers the whole result
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+  }
+
+  // walks the bookings with a forward-only cursor, handing each row over as soon as
+  // it is read, so memory stays at one fetch batch whatever the table size
+  @Transactional(readOnly = true)
+  public void forEach(Optional<Status> status, Consumer<BookingDTO> consumer) {
+    RowCallbackHandler handler = rs -> consumer.accept(toDTO(rs));
+    if (status.isPresent()) {
+      jdbcTemplate.query(SELECT_BOOKINGS + " where status = ? order by id", handler, status.get().name());
+    } else {
+      jdbcTemplate.query(SELECT_BOOKINGS + " order by id", handler);
+    }
+  }
+
+  // also used by BookingTransitionRepository, same columns
+  static BookingDTO toDTO(ResultSet rs) throws SQLException {
+    var createdAt = rs.getTimestamp("created_at");
+    var status = rs.getString("status");
+    return new BookingDTO(
+        rs.getLong("id"),
+        rs.getLong("ad_space_id"),
+        rs.getString("advertiser_name"),
+        rs.getString("advertiser_email"),
+        rs.getObject("start_date", LocalDate.class),
+        rs.getObject("end_date", LocalDate.class),
+        createdAt == null ? null : createdAt.toLocalDateTime(),
+        status == null ? null : Status.valueOf(status),
+        rs.getObject("total_cost", Integer.class));
+  }
+}
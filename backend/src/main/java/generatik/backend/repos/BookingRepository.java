@@ -1,10 +1,76 @@
 package generatik.backend.repos;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import generatik.backend.dtos.AdvertiserDTO;
+import generatik.backend.dtos.BookedRangeDTO;
+import generatik.backend.dtos.BookingDTO;
 import generatik.backend.entities.booking.Booking;
+import generatik.backend.entities.booking.Status;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+  // constructor projection: b.adSpace.id is read from the ad_space_id column, so
+  // there is no join and no AdSpace (or Booking) entity is ever hydrated
+  String SELECT_DTO = """
+      select new generatik.backend.dtos.BookingDTO(
+        b.id, b.adSpace.id, b.advertiserName, b.advertiserEmail,
+        b.startDate, b.endDate, b.createdAt, b.status, b.totalCost)
+      from bookings b
+      """;
+
+  @Query(SELECT_DTO + " where b.id = :id")
+  Optional<BookingDTO> findDTOById(@Param("id") Long id);
+
+  // keyset pages ordered by id, same idea as AdSpaceRepository
+  @Query(SELECT_DTO + " where b.id > :afterId order by b.id")
+  List<BookingDTO> findDTOPage(@Param("afterId") Long afterId, Limit limit);
+
+  // served by idx_bookings_status (status, id): filter + order straight from the index
+  @Query(SELECT_DTO + " where b.status = :status and b.id > :afterId order by b.id")
+  List<BookingDTO> findDTOPageByStatus(@Param("status") Status status, @Param("afterId") Long afterId, Limit limit);
+
+  // ranges still able to block a new booking (they end after `from`), used to
+  // build the in-memory availability index; streamed, must run in a transaction
+  @Query("""
+      select new generatik.backend.dtos.BookedRangeDTO(b.id, b.adSpace.id, b.startDate, b.endDate)
+      from bookings b
+      where b.status in :statuses and b.startDate is not null and b.endDate > :from
+      """)
+  Stream<BookedRangeDTO> streamBookedRanges(@Param("statuses") Collection<Status> statuses,
+      @Param("from") LocalDate from);
+
+  // index only scan of idx_bookings_status
+  long countByStatus(Status status);
+
+  // whether a booking the availability index holds still blocks its days
+  boolean existsByIdAndStatusIn(Long id, Collection<Status> statuses);
+
+  // which of these names / emails are already used, one indexed lookup for a whole batch
+  @Query("select b.advertiserName from bookings b where b.advertiserName in :names")
+  List<String> findExistingAdvertiserNames(@Param("names") Collection<String> names);
+
+  @Query("select b.advertiserEmail from bookings b where b.advertiserEmail in :emails")
+  List<String> findExistingAdvertiserEmails(@Param("emails") Collection<String> emails);
+
+  // every name / email in use, to build the in-memory advertiser filter; streamed, must run in a transaction
+  // with a fetch size, else the driver reads the whole table into memory before the first row
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+  @Query("select new generatik.backend.dtos.AdvertiserDTO(b.advertiserName, b.advertiserEmail) from bookings b")
+  Stream<AdvertiserDTO> streamAdvertisers();
 }
@@ -0,0 +1,131 @@
+package generatik.backend.repos;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import generatik.backend.dtos.RevenueDTO;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.City;
+
+// booking_stats_monthly: approved / rejected bookings summed per (month, city, ad space type, status)
+// a booking only reaches Approved or Rejected once (from Pending), so the totals are added to
+// in the transaction of the approve / reject and never taken back; a booking spanning months
+// adds its days, and the revenue of those days, to each of them: each month gets the cost up to
+// its last day minus the cost up to its first (both rounded down), so the slices add up to the
+// exact total_cost whatever it divides by
+// city and type are the ad space's at approval time, the totals stay when it changes or is deleted
+@Repository
+public class BookingStatsRepository {
+
+  // per (month, city, type, status) group of the selected bookings, in key order so two
+  // transactions adding to the same rows lock them in the same order
+  private static final String STATS_OF = """
+      select m.month, a.city, a.type, b.status,
+        count(*) filter (where m.month = date_trunc('month', b.start_date::timestamp)::date) as bookings,
+        sum(m.days) as booked_days,
+        sum(b.total_cost::bigint * (m.days_before + m.days) / (b.end_date - b.start_date)
+          - b.total_cost::bigint * m.days_before / (b.end_date - b.start_date)) as revenue
+      from bookings b
+      join ad_spaces a on a.id = b.ad_space_id
+      cross join lateral (
+        select month::date as month,
+          greatest(b.start_date, month::date) - b.start_date as days_before,
+          least(b.end_date, (month + interval '1 month')::date) - greatest(b.start_date, month::date) as days
+        from generate_series(date_trunc('month', b.start_date::timestamp), (b.end_date - 1)::timestamp,
+          interval '1 month') month) m
+      where %s and b.end_date > b.start_date and b.total_cost is not null
+      group by 1, 2, 3, 4
+      order by 1, 2, 3, 4
+      """;
+
+  // what the revenue totals are summed by
+  public enum Grouping {
+    City("city"),
+    Type("ad_space_type"),
+    Month("to_char(month, 'YYYY-MM')");
+
+    private final String expression;
+
+    Grouping(String expression) {
+      this.expression = expression;
+    }
+  }
+
+  // booked days of the approved bookings of one city / type, next to the ad spaces it has now
+  public record Occupancy(City city, AdSpaceType type, long adSpaces, long bookedDays) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public BookingStatsRepository(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  // adds bookings that just became Approved / Rejected; joins the caller's transaction, after
+  // the status update, so the totals commit with it
+  public void add(Collection<Long> bookingIds) {
+    if (bookingIds.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.update("insert into booking_stats_monthly as s"
+        + " (month, city, ad_space_type, status, bookings, booked_days, revenue) "
+        + STATS_OF.formatted("b.id = any(?)")
+        + """
+            on conflict (month, city, ad_space_type, status) do update set
+              bookings = s.bookings + excluded.bookings,
+              booked_days = s.booked_days + excluded.booked_days,
+              revenue = s.revenue + excluded.revenue
+            """,
+        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", bookingIds.toArray())));
+  }
+
+  // recomputed from the bookings, for rows written around BookingService (bulk loads)
+  public void rebuild() {
+    jdbcTemplate.update("delete from booking_stats_monthly");
+    jdbcTemplate.update("insert into booking_stats_monthly"
+        + " (month, city, ad_space_type, status, bookings, booked_days, revenue) "
+        + STATS_OF.formatted("b.status in ('Approved', 'Rejected')"));
+  }
+
+  // summed over the months [from, to], one row per group that has any approved / rejected booking
+  public List<RevenueDTO> revenueBy(Grouping grouping, YearMonth from, YearMonth to) {
+    return jdbcTemplate.query("select " + grouping.expression + " as grp,"
+        + " coalesce(sum(bookings) filter (where status = 'Approved'), 0) as approved_bookings,"
+        + " coalesce(sum(booked_days) filter (where status = 'Approved'), 0) as booked_days,"
+        + " coalesce(sum(revenue) filter (where status = 'Approved'), 0) as revenue,"
+        + " coalesce(sum(bookings) filter (where status = 'Rejected'), 0) as rejected_bookings,"
+        + " coalesce(sum(revenue) filter (where status = 'Rejected'), 0) as rejected_revenue"
+        + " from booking_stats_monthly where month between ? and ? group by 1 order by 1",
+        (rs, row) -> new RevenueDTO(
+            rs.getString("grp"),
+            rs.getLong("approved_bookings"),
+            rs.getLong("booked_days"),
+            rs.getLong("revenue"),
+            rs.getLong("rejected_bookings"),
+            rs.getLong("rejected_revenue")),
+        Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)));
+  }
+
+  // every city / type that has ad spaces, with the days its approved bookings hold in [from, to]
+  public List<Occupancy> occupancy(YearMonth from, YearMonth to) {
+    return jdbcTemplate.query("""
+        select a.city, a.type, a.ad_spaces, coalesce(s.booked_days, 0) as booked_days
+        from (select city, type, count(*) as ad_spaces from ad_spaces group by city, type) a
+        left join (
+          select city, ad_space_type, sum(booked_days) as booked_days from booking_stats_monthly
+          where status = 'Approved' and month between ? and ?
+          group by city, ad_space_type) s on s.city = a.city and s.ad_space_type = a.type
+        order by a.city, a.type
+        """,
+        (rs, row) -> new Occupancy(City.valueOf(rs.getString("city")), AdSpaceType.valueOf(rs.getString("type")),
+            rs.getLong("ad_spaces"), rs.getLong("booked_days")),
+        Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)));
+  }
+}
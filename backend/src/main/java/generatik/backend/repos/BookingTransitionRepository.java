@@ -0,0 +1,72 @@
+package generatik.backend.repos;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.City;
+import generatik.backend.entities.booking.Status;
+
+// status changes of many bookings in one statement, bypassing the persistence context
+// (the rows are never loaded as entities, so nothing managed can go stale)
+@Repository
+public class BookingTransitionRepository {
+
+  // what happened to one requested id: previousStatus is null when the booking does not
+  // exist, booking is only set when the row was actually changed, with the city / type of its ad space
+  public record Transition(Long id, Status previousStatus, BookingDTO booking, City city, AdSpaceType adSpaceType) {
+  }
+
+  // one round trip: the update only touches Pending rows (re-checked under the row lock,
+  // so two moderators can't both move the same booking) and the outer select joins the
+  // requested ids against what the update returned and against the status before it
+  private static final String TRANSITION_PENDING = """
+      with requested(id) as (select unnest(?::bigint[])),
+      changed as (
+        update bookings set status = ?
+        where id in (select id from requested) and status = 'Pending'
+        returning id, ad_space_id, advertiser_name, advertiser_email, start_date, end_date, created_at, status,
+          total_cost)
+      select r.id as requested_id, b.status as previous_status, c.*, a.city as ad_space_city,
+        a.type as ad_space_type
+      from requested r
+      left join bookings b on b.id = r.id
+      left join changed c on c.id = r.id
+      left join ad_spaces a on a.id = c.ad_space_id
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public BookingTransitionRepository(DataSource dataSource) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+  }
+
+  // moves the Pending ones among ids to `to`, one Transition per distinct id
+  // joins the caller's transaction, the changes are only visible once it commits
+  public List<Transition> transitionPending(Collection<Long> ids, Status to) {
+    return jdbcTemplate.query(TRANSITION_PENDING,
+        ps -> {
+          ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray()));
+          ps.setString(2, to.name());
+        },
+        (rs, row) -> {
+          var previous = rs.getString("previous_status");
+          rs.getObject("id"); // null when the update did not touch this id
+          var changed = !rs.wasNull();
+          var city = rs.getString("ad_space_city");
+          var type = rs.getString("ad_space_type");
+          return new Transition(
+              rs.getLong("requested_id"),
+              previous == null ? null : Status.valueOf(previous),
+              changed ? BookingExportRepository.toDTO(rs) : null,
+              city == null ? null : City.valueOf(city),
+              type == null ? null : AdSpaceType.valueOf(type));
+        });
+  }
+}
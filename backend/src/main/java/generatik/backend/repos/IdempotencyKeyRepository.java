@@ -0,0 +1,54 @@
+package generatik.backend.repos;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import generatik.backend.dtos.BookingDTO;
+import tools.jackson.databind.json.JsonMapper;
+
+// the persistent side of the Idempotency-Key support (IdempotencyStore): the booking a key
+// created, kept as the json that was sent back, so a replay never reads the bookings table
+@Repository
+public class IdempotencyKeyRepository {
+
+  // requestHash tells a retry (same body) from a reused key (another body)
+  public record StoredResponse(String requestHash, BookingDTO booking) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JsonMapper jsonMapper;
+
+  public IdempotencyKeyRepository(DataSource dataSource, JsonMapper jsonMapper) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jsonMapper = jsonMapper;
+  }
+
+  public Optional<StoredResponse> find(String key, Instant notBefore) {
+    return jdbcTemplate.query(
+        "select request_hash, response::text as response from idempotency_keys"
+            + " where idempotency_key = ? and created_at >= ?",
+        (rs, row) -> new StoredResponse(
+            rs.getString("request_hash"),
+            jsonMapper.readValue(rs.getString("response"), BookingDTO.class)),
+        key, Timestamp.from(notBefore))
+        .stream()
+        .findFirst();
+  }
+
+  // joins the caller's transaction, so the key is stored together with the booking or not at all
+  public void insert(String key, String requestHash, BookingDTO booking) {
+    jdbcTemplate.update(
+        "insert into idempotency_keys (idempotency_key, request_hash, response) values (?, ?, ?::jsonb)",
+        key, requestHash, jsonMapper.writeValueAsString(booking));
+  }
+
+  public int deleteOlderThan(Instant before) {
+    return jdbcTemplate.update("delete from idempotency_keys where created_at < ?", Timestamp.from(before));
+  }
+}
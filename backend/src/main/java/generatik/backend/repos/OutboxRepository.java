@@ -0,0 +1,63 @@
+package generatik.backend.repos;
+
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.events.OutboxMessage;
+import tools.jackson.databind.json.JsonMapper;
+
+// booking_outbox: the booking events still to deliver downstream (OutboxRelay)
+// written in the transaction that changes the booking, so an event exists exactly when
+// its change was committed
+@Repository
+public class OutboxRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JsonMapper jsonMapper;
+
+  public OutboxRepository(DataSource dataSource, JsonMapper jsonMapper) {
+    this.jdbcTemplate = new JdbcTemplate(dataSource);
+    this.jsonMapper = jsonMapper;
+  }
+
+  // joins the caller's transaction; one jdbc batch for the whole list
+  public void insert(BookingEvent.Type type, List<BookingDTO> bookings) {
+    if (bookings.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.batchUpdate("insert into booking_outbox (event_type, booking_id, payload) values (?, ?, ?::jsonb)",
+        bookings, bookings.size(), (ps, booking) -> {
+          ps.setString(1, type.name());
+          ps.setLong(2, booking.id());
+          ps.setString(3, jsonMapper.writeValueAsString(booking));
+        });
+  }
+
+  // the oldest undelivered rows, locked until the caller's transaction ends; rows another
+  // node has locked are skipped instead of waited for, so relays on several nodes each take
+  // their own batch
+  public List<OutboxMessage> lockOldest(int limit) {
+    return jdbcTemplate.query(
+        "select id, event_type, booking_id, payload::text as payload, created_at from booking_outbox"
+            + " order by id limit ? for update skip locked",
+        (rs, row) -> new OutboxMessage(
+            rs.getLong("id"),
+            BookingEvent.Type.valueOf(rs.getString("event_type")),
+            rs.getLong("booking_id"),
+            rs.getString("payload"),
+            rs.getTimestamp("created_at").toInstant()),
+        limit);
+  }
+
+  public int delete(Collection<Long> ids) {
+    return jdbcTemplate.update("delete from booking_outbox where id = any(?)",
+        ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+  }
+}
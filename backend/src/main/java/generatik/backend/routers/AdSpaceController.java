@@ -1,8 +1,14 @@
 package generatik.backend.routers;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,18 +16,23 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import generatik.backend.dtos.AdSpaceDTO;
+import generatik.backend.dtos.AvailableAdSpaceDTO;
+import generatik.backend.dtos.CalendarDTO;
 import generatik.backend.entities.adspace.AdSpaceType;
 import generatik.backend.entities.adspace.City;
 import generatik.backend.services.AdSpaceService;
 import generatik.backend.services.BookingService;
+import generatik.backend.services.CatalogueVersion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
@@ -31,34 +42,187 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Ad Spaces", description = "Retrieve, update and delete advertising spaces")
 public class AdSpaceController {
   private static final Logger logger = LoggerFactory.getLogger(AdSpaceController.class);
+  static final int DEFAULT_PAGE_SIZE = 100;
+  static final int MAX_PAGE_SIZE = 500; // hard cap, so one request can't pull the whole table
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final int DEFAULT_CALENDAR_DAYS = 365;
+  static final int MAX_CALENDAR_DAYS = 731; // two years
+  // a browser keeps catalogue reads but revalidates every one with If-None-Match: the list reloaded
+  // right after an edit / delete must not come out of its cache, an unchanged one is a cheap 304
+  static final CacheControl CATALOGUE_CACHE_CONTROL = CacheControl.noCache();
+
   private final AdSpaceService adSpaceService;
+  private final CatalogueVersion catalogueVersion;
 
-  public AdSpaceController(BookingService bookingService, AdSpaceService adSpaceService) {
+  public AdSpaceController(BookingService bookingService, AdSpaceService adSpaceService,
+      CatalogueVersion catalogueVersion) {
     this.adSpaceService = adSpaceService;
+    this.catalogueVersion = catalogueVersion;
   }
 
   @GetMapping("")
-  @Operation(summary = "List ad spaces", description = "Returns a list of ad spaces filtered by type and city", tags = {
-      "Ad Spaces" })
+  @Operation(summary = "List ad spaces",
+      description = "Returns a page of ad spaces filtered by type and city, ordered by id. "
+      + "When more results exist the id to pass as 'after' for the next page is sent in the X-Next-Cursor header. "
+      + "Sends an ETag that changes with any ad space update or delete, a matching If-None-Match gets a 304", tags = {
+          "Ad Spaces" })
   public ResponseEntity<List<AdSpaceDTO>> getAllAdSpaces(
       @RequestParam(name = "type", required = false) AdSpaceType type,
-      @RequestParam(name = "city", required = false) City city) {
-    logger.info("GET /api/v1/ad-spaces called with type={} and city={}", type, city);
+      @RequestParam(name = "city", required = false) City city,
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestParam(name = "limit", required = false) Integer limit,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    logger.info("GET /api/v1/ad-spaces called with type={}, city={}, after={}, limit={}", type, city, after, limit);
+
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1) { // edge case, an empty / negative page makes no sense
+      logger.warn("Listing ad spaces failed: invalid limit {}", limit);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "limit must be at least 1");
+    }
+    pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+    // read once: the page is cached under this version and sent with its tag
+    var version = catalogueVersion.current();
+    var etag = CatalogueVersion.etag(version);
+    if (matches(ifNoneMatch, etag)) {
+      logger.debug("Ad space listing not modified");
+      return notModified(etag);
+    }
+
     var spaces = adSpaceService.getAll(
+        version,
         Optional.ofNullable(type),
-        Optional.ofNullable(city));
+        Optional.ofNullable(city),
+        after == null ? 0L : after,
+        pageSize);
     logger.debug("Found {} ad spaces", spaces.size());
-    return ResponseEntity.ok(spaces);
+
+    var response = ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CATALOGUE_CACHE_CONTROL);
+    if (spaces.size() == pageSize) { // a full page means there may be more
+      response.header(NEXT_CURSOR_HEADER, String.valueOf(spaces.get(spaces.size() - 1).id()));
+    }
+    return response.body(spaces);
+  }
+
+  @GetMapping("/search")
+  @Operation(summary = "Search ad spaces free for a period",
+      description = "Returns the available ad spaces of a city and type "
+      + "with no pending or approved booking between from (inclusive) and to (exclusive), with the total price for the "
+      + "period. Paged like the listing, with 'after' / 'limit' and the X-Next-Cursor header", tags = { "Ad Spaces" })
+  public ResponseEntity<List<AvailableAdSpaceDTO>> searchAvailable(
+      @RequestParam(name = "city") City city,
+      @RequestParam(name = "type") AdSpaceType type,
+      @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestParam(name = "limit", required = false) Integer limit) {
+    logger.info("GET /api/v1/ad-spaces/search called with city={}, type={}, from={}, to={}", city, type, from, to);
+
+    if (!to.isAfter(from)) { // same rule as for a booking
+      logger.warn("Search failed: to {} is not after from {}", to, from);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "to must be after from");
+    }
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1) {
+      logger.warn("Search failed: invalid limit {}", limit);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "limit must be at least 1");
+    }
+    pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
+
+    var spaces = adSpaceService.findAvailable(city, type, from, to, after == null ? 0L : after, pageSize);
+    logger.debug("Found {} free ad spaces", spaces.size());
+
+    var response = ResponseEntity.ok();
+    if (spaces.size() == pageSize) {
+      response.header(NEXT_CURSOR_HEADER, String.valueOf(spaces.get(spaces.size() - 1).id()));
+    }
+    return response.body(spaces);
+  }
+
+  @GetMapping("/{id}/calendar")
+  @Operation(summary = "Availability calendar of an ad space",
+      description = "One char per day from 'from' (default today) "
+      + "to 'to' (exclusive, default a year later): '1' when the day is held by a pending or approved booking", tags = {
+          "Ad Spaces" })
+  public ResponseEntity<CalendarDTO> getCalendar(
+      @PathVariable Long id,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    logger.info("GET /api/v1/ad-spaces/{}/calendar called with from={}, to={}", id, from, to);
+    var start = from == null ? LocalDate.now() : from;
+    var end = to == null ? start.plusDays(DEFAULT_CALENDAR_DAYS) : to;
+    checkCalendarPeriod(start, end);
+
+    return adSpaceService.getCalendar(id, start, end)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> {
+          logger.warn("Ad space {} not found", id);
+          return ResponseEntity.notFound().build();
+        });
+  }
+
+  @GetMapping("/calendar")
+  @Operation(summary = "Combined availability calendar of several ad spaces", description = "Same format as the single "
+      + "calendar, a day is '0' only when every listed ad space is free that day", tags = { "Ad Spaces" })
+  public ResponseEntity<CalendarDTO> getCombinedCalendar(
+      @RequestParam(name = "ids") List<Long> ids,
+      @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    logger.info("GET /api/v1/ad-spaces/calendar called for {} ad space(s) with from={}, to={}", ids.size(), from, to);
+    if (ids.isEmpty() || ids.size() > MAX_PAGE_SIZE) {
+      logger.warn("Calendar failed: {} ids requested", ids.size());
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "ids must list between 1 and " + MAX_PAGE_SIZE + " ad spaces");
+    }
+    var start = from == null ? LocalDate.now() : from;
+    var end = to == null ? start.plusDays(DEFAULT_CALENDAR_DAYS) : to;
+    checkCalendarPeriod(start, end);
+
+    return ResponseEntity.ok(adSpaceService.getCalendar(ids, start, end));
+  }
+
+  private void checkCalendarPeriod(LocalDate from, LocalDate to) {
+    if (!to.isAfter(from) || from.plusDays(MAX_CALENDAR_DAYS).isBefore(to)) {
+      logger.warn("Calendar failed: invalid period {} - {}", from, to);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "to must be after from and at most " + MAX_CALENDAR_DAYS + " days later");
+    }
   }
 
   @GetMapping("/{id}")
-  @Operation(summary = "Get ad space by ID", tags = { "Ad Spaces" })
-  public ResponseEntity<AdSpaceDTO> getAdSpaceById(@PathVariable Long id) {
+  @Operation(summary = "Get ad space by ID",
+      description = "Sends the catalogue ETag, a matching If-None-Match gets a 304", tags = {
+      "Ad Spaces" })
+  public ResponseEntity<AdSpaceDTO> getAdSpaceById(
+      @PathVariable Long id,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     logger.info("GET /api/v1/ad-spaces/{} called", id);
-    return adSpaceService.getById(id)
+
+    // the tag comes from a 200 for this id and a delete moves the version, so a matching one
+    // proves the ad space is still there: 304 without looking it up
+    var version = catalogueVersion.current();
+    var etag = CatalogueVersion.etag(version);
+    if (matches(ifNoneMatch, etag)) {
+      logger.debug("Ad space {} not modified", id);
+      return notModified(etag);
+    }
+    return adSpaceService.getById(version, id)
         .map(space -> {
           logger.debug("Ad space {} found", id);
-          return ResponseEntity.ok(space);
+          return ResponseEntity.ok()
+              .eTag(etag)
+              .cacheControl(CATALOGUE_CACHE_CONTROL)
+              .body(space);
         })
         .orElseGet(() -> {
           logger.warn("Ad space {} not found", id);
@@ -70,7 +234,7 @@ public class AdSpaceController {
   @Operation(summary = "Delete ad space", description = "Deletes an ad space by ID", tags = { "Ad Spaces" })
   public ResponseEntity<Void> deleteAdSpace(@PathVariable Long id) {
     logger.info("DELETE /api/v1/ad-spaces/{} called", id);
-    if (!adSpaceService.getById(id).isPresent()) {
+    if (!adSpaceService.getById(catalogueVersion.current(), id).isPresent()) {
       logger.warn("Tried to delete ad space {}, but it does not exist", id);
       return ResponseEntity.notFound().build();
     }
@@ -96,4 +260,21 @@ public class AdSpaceController {
           return ResponseEntity.notFound().build();
         });
   }
+
+  // weak comparison, as for any GET (RFC 9110, 13.1.2)
+  private static boolean matches(String ifNoneMatch, String etag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    var current = ETag.create(etag);
+    return ETag.parse(ifNoneMatch).stream()
+        .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+  }
+
+  private static <T> ResponseEntity<T> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+        .eTag(etag)
+        .cacheControl(CATALOGUE_CACHE_CONTROL)
+        .build();
+  }
 }
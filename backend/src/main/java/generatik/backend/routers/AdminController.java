@@ -0,0 +1,47 @@
+package generatik.backend.routers;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import generatik.backend.dtos.CacheStatsDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@Tag(name = "Admin", description = "Operational information about the backend")
+public class AdminController {
+  private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+  private final CacheManager cacheManager;
+
+  public AdminController(CacheManager cacheManager) {
+    this.cacheManager = cacheManager;
+  }
+
+  @GetMapping("/caches")
+  @Operation(summary = "Cache statistics",
+      description = "Size, hit, miss and eviction counters of every in-process cache, "
+      + "to size them in production", tags = { "Admin" })
+  public ResponseEntity<List<CacheStatsDTO>> getCacheStats() {
+    logger.info("GET /api/v1/admin/caches called");
+    var stats = cacheManager.getCacheNames().stream()
+        .map(cacheManager::getCache)
+        .filter(CaffeineCache.class::isInstance)
+        .map(cache -> {
+          var nativeCache = ((CaffeineCache) cache).getNativeCache();
+          var s = nativeCache.stats();
+          return new CacheStatsDTO(cache.getName(), nativeCache.estimatedSize(), s.hitCount(), s.missCount(),
+              s.evictionCount(), s.hitRate());
+        })
+        .toList();
+    return ResponseEntity.ok(stats);
+  }
+}
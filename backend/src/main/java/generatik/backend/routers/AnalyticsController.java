@@ -0,0 +1,96 @@
+package generatik.backend.routers;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import generatik.backend.dtos.OccupancyDTO;
+import generatik.backend.dtos.RevenueDTO;
+import generatik.backend.repos.BookingStatsRepository.Grouping;
+import generatik.backend.services.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/v1/analytics")
+@Tag(name = "Analytics", description = "Revenue and occupancy of the approved bookings")
+public class AnalyticsController {
+  private static final Logger logger = LoggerFactory.getLogger(AnalyticsController.class);
+  static final int DEFAULT_MONTHS = 12;
+  static final int MAX_MONTHS = 120;
+
+  private final AnalyticsService analyticsService;
+
+  public AnalyticsController(AnalyticsService analyticsService) {
+    this.analyticsService = analyticsService;
+  }
+
+  @GetMapping("/revenue/cities")
+  @Operation(summary = "Revenue per city", description = "Approved (and rejected) bookings, booked days and revenue "
+      + "per city over the months 'from' to 'to' (yyyy-MM, inclusive, default the last 12 months)", tags = {
+          "Analytics" })
+  public ResponseEntity<List<RevenueDTO>> getRevenuePerCity(
+      @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    return revenue(Grouping.City, from, to);
+  }
+
+  @GetMapping("/revenue/types")
+  @Operation(summary = "Revenue per ad space type", description = "Same as per city, grouped by ad space type", tags = {
+      "Analytics" })
+  public ResponseEntity<List<RevenueDTO>> getRevenuePerType(
+      @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    return revenue(Grouping.Type, from, to);
+  }
+
+  @GetMapping("/revenue/months")
+  @Operation(summary = "Revenue per month", description = "Same as per city, grouped by month: a booking spanning "
+      + "months has its days and revenue split over them", tags = { "Analytics" })
+  public ResponseEntity<List<RevenueDTO>> getRevenuePerMonth(
+      @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    return revenue(Grouping.Month, from, to);
+  }
+
+  @GetMapping("/occupancy")
+  @Operation(summary = "Occupancy per city and ad space type", description = "Share of the ad space days held by "
+      + "approved bookings over the months 'from' to 'to' (yyyy-MM, inclusive, default the last 12 months)", tags = {
+          "Analytics" })
+  public ResponseEntity<List<OccupancyDTO>> getOccupancy(
+      @RequestParam(name = "from", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+      @RequestParam(name = "to", required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+    logger.info("GET /api/v1/analytics/occupancy called with from={}, to={}", from, to);
+    var end = to == null ? YearMonth.now() : to;
+    var start = from == null ? end.minusMonths(DEFAULT_MONTHS - 1) : from;
+    checkPeriod(start, end);
+    return ResponseEntity.ok(analyticsService.occupancy(start, end));
+  }
+
+  private ResponseEntity<List<RevenueDTO>> revenue(Grouping grouping, YearMonth from, YearMonth to) {
+    logger.info("GET /api/v1/analytics/revenue per {} called with from={}, to={}", grouping, from, to);
+    var end = to == null ? YearMonth.now() : to;
+    var start = from == null ? end.minusMonths(DEFAULT_MONTHS - 1) : from;
+    checkPeriod(start, end);
+    return ResponseEntity.ok(analyticsService.revenueBy(grouping, start, end));
+  }
+
+  private static void checkPeriod(YearMonth from, YearMonth to) {
+    if (from.isAfter(to) || from.plusMonths(MAX_MONTHS).isBefore(to.plusMonths(1))) {
+      logger.warn("Analytics called with an invalid period: from={}, to={}", from, to);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "from must not be after to, and the period can cover at most " + MAX_MONTHS + " months");
+    }
+  }
+}
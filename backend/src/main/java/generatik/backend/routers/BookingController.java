@@ -1,15 +1,22 @@
 package generatik.backend.routers;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,14 +24,20 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import generatik.backend.dtos.BookingCreationDTO;
 import generatik.backend.dtos.BookingDTO;
+import generatik.backend.dtos.BookingResultDTO;
 import generatik.backend.entities.booking.Status;
+import generatik.backend.services.AdvertiserRateLimiter;
+import generatik.backend.services.BookingEventStream;
 import generatik.backend.services.BookingService;
 
 @RestController
@@ -34,50 +47,148 @@ import generatik.backend.services.BookingService;
 public class BookingController {
 
   private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+  static final int DEFAULT_PAGE_SIZE = 100;
+  static final int MAX_PAGE_SIZE = 500; // hard cap, bigger dumps go through /export
+  static final int MAX_BULK_SIZE = 1_000;
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  static final String REPLAYED_HEADER = "Idempotent-Replayed";
+  static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100; // idempotency_keys.idempotency_key is varchar(100)
+  static final String API_KEY_HEADER = "X-API-Key";
+  static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
 
   private final BookingService bookingService;
+  private final AdvertiserRateLimiter rateLimiter;
+  private final BookingEventStream eventStream;
+  private final Set<String> apiKeys;
 
-  public BookingController(BookingService bookingService) {
+  public BookingController(BookingService bookingService, AdvertiserRateLimiter rateLimiter,
+      BookingEventStream eventStream, @Value("${admission.api-keys}") Set<String> apiKeys) {
     this.bookingService = bookingService;
+    this.rateLimiter = rateLimiter;
+    this.eventStream = eventStream;
+    this.apiKeys = apiKeys;
   }
 
   @PostMapping(value = "")
-  @Operation(summary = "Create a booking request")
-  public ResponseEntity<BookingDTO> createBooking(@RequestBody BookingCreationDTO bookingDTO) {
+  @Operation(summary = "Create a booking request",
+      description = "Send an Idempotency-Key (e.g. a uuid) to retry safely: "
+      + "a retry with the same key and body gets the booking created the first time, with Idempotent-Replayed: true, "
+      + "and waits when the first request is still running. The same key with another body gets a 422. "
+      + "Rate limited per partner X-API-Key (else per advertiserEmail): over the limit gets a 429 with Retry-After")
+  public ResponseEntity<BookingDTO> createBooking(@RequestBody BookingCreationDTO bookingDTO,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+      @RequestHeader(name = API_KEY_HEADER, required = false) String apiKey) {
     logger.info("POST /api/v1/booking-requests called to create booking");
 
+    // before anything else, a flooding client must not get as far as the db
+    var advertiser = advertiser(apiKey, bookingDTO);
+    long wait = rateLimiter.tryAcquire(advertiser);
+    if (wait > 0) {
+      logger.warn("Booking creation refused: {} is over its rate", advertiser);
+      throw new RetryLaterException(
+          HttpStatus.TOO_MANY_REQUESTS,
+          "Too many booking requests, try again later",
+          wait);
+    }
+
+    if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+      logger.warn("Booking creation failed: invalid Idempotency-Key of length {}", idempotencyKey.length());
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Idempotency-Key must have between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+    }
+
     var start = bookingDTO.startDate();
     var end = bookingDTO.endDate();
-    var today = LocalDate.now();
 
     logger.debug("Booking payload received: startDate={}, endDate={}", start, end);
 
-    if (start == null || end == null) { // both must not be null
-      logger.warn("Booking creation failed: startDate or endDate is null");
+    // both must not be null, both must be in the future, endDate must be after startDate
+    var invalidDates = BookingService.checkDates(start, end);
+    if (invalidDates.isPresent()) {
+      logger.warn("Booking creation failed: {}. today={}, startDate={}, endDate={}", invalidDates.get(),
+          LocalDate.now(), start, end);
       throw new ResponseStatusException(
           HttpStatus.BAD_REQUEST,
-          "startDate and endDate are required");
+          invalidDates.get());
     }
 
-    if (!start.isAfter(today) || !end.isAfter(today)) { // both must be in the future
-      logger.warn("Booking creation failed: dates not in the future. today={}, startDate={}, endDate={}",
-          today, start, end);
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST,
-          "startDate and endDate must both be in the future");
+    if (idempotencyKey == null) {
+      var savedBooking = bookingService.createBooking(bookingDTO);
+      logger.info("Booking created successfully with id={}", savedBooking.id());
+      return ResponseEntity.ok().body(savedBooking);
     }
 
-    if (!end.isAfter(start)) { // endDate must be after startDate
-      logger.warn("Booking creation failed: endDate {} is not after startDate {}", end, start);
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST,
-          "endDate must be after startDate");
+    var result = bookingService.createBooking(bookingDTO, idempotencyKey);
+    if (result.replayed()) {
+      logger.info("Replayed booking {} for Idempotency-Key {}", result.booking().id(), idempotencyKey);
+    } else {
+      logger.info("Booking created successfully with id={}", result.booking().id());
+    }
+    return ResponseEntity.ok()
+        .header(REPLAYED_HEADER, String.valueOf(result.replayed()))
+        .body(result.booking());
+  }
+
+  @PostMapping(value = "/bulk")
+  @Operation(summary = "Create many booking requests at once",
+      description = "Each item is validated and created on its "
+      + "own: the response has one result per item, in order, with the status that item would have had as a single "
+      + "request. A bad item does not fail the others. Every item counts against the rate limit of its advertiser "
+      + "(or of the partner X-API-Key): the items over it get a 429 and the response a Retry-After, a 429 for the "
+      + "whole request when none was let through")
+  public ResponseEntity<List<BookingResultDTO>> createBookings(@RequestBody List<BookingCreationDTO> bookingDTOs,
+      @RequestHeader(name = API_KEY_HEADER, required = false) String apiKey) {
+    logger.info("POST /api/v1/booking-requests/bulk called with {} item(s)", bookingDTOs.size());
+
+    checkBulkSize(bookingDTOs.size());
+    // a token per item, as if each had been sent on its own
+    var results = new BookingResultDTO[bookingDTOs.size()];
+    var admitted = new ArrayList<BookingCreationDTO>();
+    var admittedIndexes = new ArrayList<Integer>();
+    long longestWait = 0;
+    for (int i = 0; i < bookingDTOs.size(); i++) {
+      long wait = rateLimiter.tryAcquire(advertiser(apiKey, bookingDTOs.get(i)));
+      if (wait > 0) {
+        results[i] = new BookingResultDTO(i, HttpStatus.TOO_MANY_REQUESTS.value(), null,
+            "Too many booking requests, try again later");
+        longestWait = Math.max(longestWait, wait);
+      } else {
+        admitted.add(bookingDTOs.get(i));
+        admittedIndexes.add(i);
+      }
+    }
+    if (admitted.isEmpty() && longestWait > 0) {
+      logger.warn("Bulk booking creation refused: every item is over its advertiser's rate");
+      throw new RetryLaterException(
+          HttpStatus.TOO_MANY_REQUESTS,
+          "Too many booking requests, try again later",
+          longestWait);
     }
 
-    var savedBooking = bookingService.createBooking(bookingDTO);
-    logger.info("Booking created successfully with id={}", savedBooking.id());
+    var created = bookingService.createBookings(admitted);
+    for (var result : created) {
+      int index = admittedIndexes.get(result.index());
+      results[index] = new BookingResultDTO(index, result.status(), result.booking(), result.message());
+    }
+    logger.info("Bulk booking creation done: {} of {} created, {} rate limited",
+        created.stream().filter(r -> r.booking() != null).count(), results.length,
+        results.length - admitted.size());
+
+    var response = ResponseEntity.ok();
+    if (longestWait > 0) {
+      response.header(HttpHeaders.RETRY_AFTER, String.valueOf(RetryLaterException.seconds(longestWait)));
+    }
+    return response.body(Arrays.asList(results));
+  }
 
-    return ResponseEntity.ok().body(savedBooking);
+  // the rate limit bucket of a booking request: only a configured key gets its own, an unknown
+  // one (a fresh one per request) would skip the limit and push real advertisers out of the limiter
+  private String advertiser(String apiKey, BookingCreationDTO bookingDTO) {
+    return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey
+        : bookingDTO.advertiserEmail() != null ? "email:" + bookingDTO.advertiserEmail().toLowerCase()
+            : "anonymous";
   }
 
   @GetMapping(value = "/{id}")
@@ -97,7 +208,9 @@ public class BookingController {
   }
 
   @PatchMapping(value = "/{id}/approve")
-  @Operation(summary = "Approve a booking request")
+  @Operation(summary = "Approve a booking request", description = "Only pending bookings can be approved. When another "
+      + "request approves or rejects the same booking at the same moment, only one of them wins and the other gets "
+      + "a 409")
   public ResponseEntity<BookingDTO> approveBooking(@PathVariable Long id) {
     logger.info("PATCH /api/v1/booking-requests/{}/approve called", id);
 
@@ -108,7 +221,9 @@ public class BookingController {
   }
 
   @PatchMapping(value = "/{id}/reject")
-  @Operation(summary = "Reject a booking request")
+  @Operation(summary = "Reject a booking request", description = "Only pending bookings can be rejected. When another "
+      + "request approves or rejects the same booking at the same moment, only one of them wins and the other gets "
+      + "a 409")
   public ResponseEntity<BookingDTO> rejectBooking(@PathVariable Long id) {
     logger.info("PATCH /api/v1/booking-requests/{}/reject called", id);
 
@@ -118,16 +233,111 @@ public class BookingController {
     return ResponseEntity.ok(booking);
   }
 
+  @PatchMapping(value = "/bulk/approve")
+  @Operation(summary = "Approve many booking requests at once",
+      description = "Takes a list of booking ids and approves the pending ones in a single update. The response has "
+      + "one result per id, in order: 200 with the booking when it was approved, 404 when it does not exist, 400 when "
+      + "it is not pending, 409 when a concurrent request changed it first")
+  public ResponseEntity<List<BookingResultDTO>> approveBookings(@RequestBody List<Long> ids) {
+    logger.info("PATCH /api/v1/booking-requests/bulk/approve called with {} id(s)", ids.size());
+
+    checkBulkSize(ids.size());
+    var results = bookingService.approveBookings(ids);
+    logger.info("Bulk approve done: {} of {} approved",
+        results.stream().filter(r -> r.booking() != null).count(), results.size());
+
+    return ResponseEntity.ok(results);
+  }
+
+  @PatchMapping(value = "/bulk/reject")
+  @Operation(summary = "Reject many booking requests at once",
+      description = "Takes a list of booking ids and rejects the pending ones in a single update. The response has "
+      + "one result per id, in order: 200 with the booking when it was rejected, 404 when it does not exist, 400 when "
+      + "it is not pending, 409 when a concurrent request changed it first")
+  public ResponseEntity<List<BookingResultDTO>> rejectBookings(@RequestBody List<Long> ids) {
+    logger.info("PATCH /api/v1/booking-requests/bulk/reject called with {} id(s)", ids.size());
+
+    checkBulkSize(ids.size());
+    var results = bookingService.rejectBookings(ids);
+    logger.info("Bulk reject done: {} of {} rejected",
+        results.stream().filter(r -> r.booking() != null).count(), results.size());
+
+    return ResponseEntity.ok(results);
+  }
+
   @GetMapping(value = "")
-  @Operation(summary = "List booking requests (optionally filtered by status)")
+  @Operation(summary = "List booking requests (optionally filtered by status)",
+      description = "Returns a page of bookings ordered by id. "
+      + "When more results exist the id to pass as 'after' for the next page is sent in the X-Next-Cursor header")
   public ResponseEntity<List<BookingDTO>> getAll(
-      @RequestParam(name = "status", required = false) Status status) {
+      @RequestParam(name = "status", required = false) Status status,
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestParam(name = "limit", required = false) Integer limit) {
+
+    logger.info("GET /api/v1/booking-requests called with status={}, after={}, limit={}", status, after, limit);
 
-    logger.info("GET /api/v1/booking-requests called with status={}", status);
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1) { // edge case, an empty / negative page makes no sense
+      logger.warn("Listing bookings failed: invalid limit {}", limit);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "limit must be at least 1");
+    }
+    pageSize = Math.min(pageSize, MAX_PAGE_SIZE);
 
-    var bookings = bookingService.getAll(Optional.ofNullable(status));
+    var bookings = bookingService.getAll(Optional.ofNullable(status), after == null ? 0L : after, pageSize);
     logger.debug("Found {} booking(s) for status={}", bookings.size(), status);
 
-    return ResponseEntity.ok().body(bookings);
+    var response = ResponseEntity.ok();
+    if (bookings.size() == pageSize) { // a full page means there may be more
+      response.header(NEXT_CURSOR_HEADER, String.valueOf(bookings.get(bookings.size() - 1).id()));
+    }
+    return response.body(bookings);
+  }
+
+  @GetMapping(value = "/export", produces = "application/x-ndjson")
+  @Operation(summary = "Export all booking requests as NDJSON (optionally filtered by status)",
+      description = "Streams one JSON booking per line, "
+      + "meant for back-office jobs that need the whole history without paging")
+  public ResponseEntity<StreamingResponseBody> exportAll(
+      @RequestParam(name = "status", required = false) Status status) {
+
+    logger.info("GET /api/v1/booking-requests/export called with status={}", status);
+
+    StreamingResponseBody body = out -> bookingService.exportAll(Optional.ofNullable(status), out);
+    return ResponseEntity.ok()
+        .contentType(NDJSON)
+        .body(body);
+  }
+
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @Operation(summary = "Stream booking changes (Server-Sent Events, optionally filtered by status and ad space)",
+      description = "One event per change once it is committed, named Created, Approved or Rejected, with the "
+      + "booking as JSON data; replaces polling the listing. status=Pending also gets the Approved / Rejected of "
+      + "the bookings leaving it. A client that reads too slowly gets only the latest change per booking, and a "
+      + "'resync' event when some were dropped, after which it should load the listing again")
+  public SseEmitter streamEvents(
+      @RequestParam(name = "status", required = false) Status status,
+      @RequestParam(name = "adSpaceId", required = false) Long adSpaceId) {
+
+    logger.info("GET /api/v1/booking-requests/events called with status={}, adSpaceId={}", status, adSpaceId);
+
+    return eventStream.subscribe(Optional.ofNullable(status), Optional.ofNullable(adSpaceId))
+        .orElseThrow(() -> {
+          logger.warn("Event stream refused: too many open streams");
+          return new RetryLaterException(
+              HttpStatus.SERVICE_UNAVAILABLE,
+              "Too many open event streams, try again later",
+              TimeUnit.SECONDS.toNanos(5));
+        });
+  }
+
+  private static void checkBulkSize(int size) {
+    if (size < 1 || size > MAX_BULK_SIZE) {
+      logger.warn("Bulk request refused: {} items", size);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "A bulk request must have between 1 and " + MAX_BULK_SIZE + " items");
+    }
   }
 }
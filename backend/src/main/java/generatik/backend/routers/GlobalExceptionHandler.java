@@ -4,14 +4,22 @@ import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.server.ResponseStatusException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+  private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+  static final String RETRY_AFTER_SECONDS = "1";
+
   // i wrote this class to display error messages too
   // because in Spring boot 2.3+ it doesn't display even when forcing with
   // server.error.include-message=always
@@ -42,17 +50,33 @@ public class GlobalExceptionHandler {
 
   @ExceptionHandler(ResponseStatusException.class)
   public ResponseEntity<Map<String, Object>> handleResponseStatusException(ResponseStatusException ex) {
-
     int statusCode = ex.getStatusCode().value();
+    return ResponseEntity.status(statusCode)
+        .headers(ex.getHeaders()) // e.g. Retry-After of a RetryLaterException
+        .body(body(statusCode, ex.getReason()));
+  }
+
+  // no connection became free within hikari's connection-timeout (or the db is unreachable):
+  // the pool is the concurrency limit, so answer right away and let the client retry
+  @ExceptionHandler({ CannotCreateTransactionException.class, DataAccessResourceFailureException.class })
+  public ResponseEntity<Map<String, Object>> handleNoConnection(Exception ex) {
+    logger.warn("No database connection available: {}", ex.getMessage());
+
+    int statusCode = HttpStatus.SERVICE_UNAVAILABLE.value();
+    return ResponseEntity.status(statusCode)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .body(body(statusCode, "Server is overloaded, try again later"));
+  }
+
+  private static Map<String, Object> body(int statusCode, String message) {
     HttpStatus httpStatus = HttpStatus.resolve(statusCode);
 
     Map<String, Object> body = new HashMap<>();
     body.put("timestamp", Instant.now().toString());
     body.put("status", statusCode);
     body.put("error", httpStatus != null ? httpStatus.getReasonPhrase() : "Unknown");
-    body.put("message", ex.getReason());
+    body.put("message", message);
     body.put("path", "");
-
-    return ResponseEntity.status(statusCode).body(body);
+    return body;
   }
 }
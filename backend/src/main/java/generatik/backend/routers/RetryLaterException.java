@@ -0,0 +1,27 @@
+package generatik.backend.routers;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// a 429 / 503 that tells the client when to come back (Retry-After, in whole seconds)
+public class RetryLaterException extends ResponseStatusException {
+  private final long retryAfterSeconds;
+
+  public RetryLaterException(HttpStatus status, String reason, long retryAfterNanos) {
+    super(status, reason);
+    this.retryAfterSeconds = seconds(retryAfterNanos);
+  }
+
+  // the Retry-After value of a wait, rounded up to whole seconds
+  static long seconds(long retryAfterNanos) {
+    return Math.max(1, (retryAfterNanos + 999_999_999) / 1_000_000_000);
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    var headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    return headers;
+  }
+}
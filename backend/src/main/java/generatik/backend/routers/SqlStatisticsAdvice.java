@@ -0,0 +1,38 @@
+package generatik.backend.routers;
+
+import java.util.Locale;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import generatik.backend.SqlStatistics;
+
+// the request's sql accounting as response headers: written right before the body, when the
+// handler (and so every query of the request) is done but nothing is committed yet
+@ControllerAdvice
+public class SqlStatisticsAdvice implements ResponseBodyAdvice<Object> {
+  public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+  public static final String TIME_HEADER = "X-SQL-Time"; // milliseconds
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType, ServerHttpRequest request,
+      ServerHttpResponse response) {
+    var current = SqlStatistics.current();
+    if (current != null) {
+      response.getHeaders().set(STATEMENTS_HEADER, String.valueOf(current.statements()));
+      response.getHeaders().set(TIME_HEADER, String.format(Locale.ROOT, "%.3f", current.nanos() / 1e6));
+    }
+    return body;
+  }
+}
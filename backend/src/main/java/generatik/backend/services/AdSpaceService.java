@@ -1,10 +1,23 @@
 package generatik.backend.services;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import generatik.backend.CacheConfig;
+import generatik.backend.ReplicaRouting;
 import generatik.backend.entities.adspace.*;
 import generatik.backend.entities.booking.*;
 import generatik.backend.repos.AdSpaceRepository;
@@ -15,34 +28,134 @@ import generatik.backend.dtos.*;
 public class AdSpaceService {
   private final BookingRepository bookingRepository;
   private final AdSpaceRepository adSpaceRepository;
+  private final OccupancyCalendar occupancyCalendar;
+  private final CatalogueVersion catalogueVersion;
+  private final Cache adSpaces;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate readOnlyTransaction;
 
-  public AdSpaceService(BookingRepository bookingRepository, AdSpaceRepository adSpaceRepository) {
+  public AdSpaceService(BookingRepository bookingRepository, AdSpaceRepository adSpaceRepository,
+      OccupancyCalendar occupancyCalendar, CatalogueVersion catalogueVersion, CacheManager cacheManager,
+      PlatformTransactionManager transactionManager) {
     this.bookingRepository = bookingRepository;
     this.adSpaceRepository = adSpaceRepository;
+    this.occupancyCalendar = occupancyCalendar;
+    this.catalogueVersion = catalogueVersion;
+    this.adSpaces = cacheManager.getCache(CacheConfig.AD_SPACES);
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
   }
 
-  public List<AdSpaceDTO> getAll(Optional<AdSpaceType> type, Optional<City> city) {
-    return adSpaceRepository.findAll()
+  // one keyset page of available ad spaces, filtered in the db
+  // afterId is the last id of the previous page (0 for the first page)
+  // cached per (version, type, city, afterId, limit): version is the CatalogueVersion the caller
+  // read before calling and sends as the ETag, so a page loaded just before an update can only
+  // ever be confirmed by the old tag; a newer version never finds it
+  // filled from a replica that has caught up with the version, see readAt
+  @Cacheable(cacheNames = CacheConfig.AD_SPACE_PAGES)
+  public List<AdSpaceDTO> getAll(long version, Optional<AdSpaceType> type, Optional<City> city, long afterId,
+      int limit) {
+    var status = AvailabilityStatus.Available; // only available ones
+    var page = Limit.of(limit);
+
+    List<AdSpace> spaces = readAt(version, () -> {
+      if (type.isPresent() && city.isPresent()) {
+        return adSpaceRepository.findByAvailabilityStatusAndCityAndTypeAndIdGreaterThanOrderByIdAsc(
+            status, city.get(), type.get(), afterId, page);
+      } else if (city.isPresent()) {
+        return adSpaceRepository.findByAvailabilityStatusAndCityAndIdGreaterThanOrderByIdAsc(
+            status, city.get(), afterId, page);
+      } else if (type.isPresent()) {
+        return adSpaceRepository.findByAvailabilityStatusAndTypeAndIdGreaterThanOrderByIdAsc(
+            status, type.get(), afterId, page);
+      }
+      return adSpaceRepository.findByAvailabilityStatusAndIdGreaterThanOrderByIdAsc(status, afterId, page);
+    });
+
+    return spaces.stream()
+        .map(AdSpaceService::toDTO)
+        .toList();
+  }
+
+  // spaces of a city + type nobody has booked (pending or approved) between from and to,
+  // with the price of booking them for the whole window
+  // not cached, runs on a replica when there are some
+  @Transactional(readOnly = true)
+  public List<AvailableAdSpaceDTO> findAvailable(City city, AdSpaceType type, LocalDate from, LocalDate to,
+      long afterId, int limit) {
+    long days = ChronoUnit.DAYS.between(from, to);
+    return adSpaceRepository.findFreeBetween(AvailabilityStatus.Available, city, type,
+        AvailabilityIndex.BLOCKING, from, to, afterId, Limit.of(limit))
         .stream()
-        .filter(ad -> ad.getAvailabilityStatus() == AvailabilityStatus.Available) // only available ones
-        .filter(ad -> type.map(t -> ad.getType() == t).orElse(true))
-        .filter(ad -> city.map(c -> ad.getCity() == c).orElse(true))
-        .map(this::toDTO)
+        .map(ad -> new AvailableAdSpaceDTO(
+            ad.id(),
+            ad.name(),
+            ad.pricePerDay(),
+            ad.city(),
+            ad.address(),
+            ad.availabilityStatus(),
+            ad.type(),
+            from,
+            to,
+            (int) days * ad.pricePerDay())) // same as a booking's totalCost
         .toList();
   }
 
-  public Optional<AdSpaceDTO> getById(Long id) {
-    return adSpaceRepository.findById(id)
-        .map(this::toDTO);
+  // booked days of one ad space, empty when the ad space does not exist
+  public Optional<CalendarDTO> getCalendar(Long id, LocalDate from, LocalDate to) {
+    if (!adSpaceRepository.existsById(id)) {
+      return Optional.empty();
+    }
+    return Optional.of(getCalendar(List.of(id), from, to));
+  }
+
+  // days on which at least one of the ad spaces is booked, from memory only
+  public CalendarDTO getCalendar(List<Long> ids, LocalDate from, LocalDate to) {
+    int days = (int) ChronoUnit.DAYS.between(from, to);
+    var bits = occupancyCalendar.bookedDays(ids, from, to);
+    var booked = new StringBuilder(days);
+    for (int day = 0; day < days; day++) {
+      booked.append((bits[day >> 6] & (1L << day)) != 0 ? '1' : '0');
+    }
+    return new CalendarDTO(ids, from, to, booked.toString());
   }
 
+  // per (version, id) and from a caught up replica, like the pages
+  @Cacheable(cacheNames = CacheConfig.AD_SPACES, unless = "#result == null")
+  public Optional<AdSpaceDTO> getById(long version, Long id) {
+    return readAt(version, () -> adSpaceRepository.findById(id))
+        .map(AdSpaceService::toDTO);
+  }
+
+  // a value cached under a version must have been read at that version or later: catalogue_version
+  // moves in the same transaction as the ad spaces, so a replica showing it has replayed their
+  // rows too; a replica still behind would leave the old rows cached under the new version, the
+  // read goes to the primary instead
+  private <T> T readAt(long version, Supplier<T> read) {
+    var fromReplica = readOnlyTransaction.execute(status -> catalogueVersion.read() >= version
+        ? Optional.of(read.get())
+        : Optional.<T>empty());
+    return fromReplica.orElseGet(() -> ReplicaRouting.onPrimary(read));
+  }
+
+  // the version moves in the write's own transaction, and is only taken up here once that
+  // committed: a reader that still gets the old version gets (and caches) the old row under it
+  // entries of older versions are left to the caches' size bound and ttl: emptying them would
+  // also throw away what readers still on the old version are being served from
   public void deleteById(Long id) {
-    adSpaceRepository.deleteById(id);
+    long version = transactionTemplate.execute(status -> {
+      adSpaceRepository.deleteById(id);
+      return catalogueVersion.increment();
+    });
+    catalogueVersion.advanceTo(version);
   }
 
   // NEW: update
+  // the fresh dto is cached under the new version; pages of the new version are loaded on
+  // demand, the change can move the ad space in or out of any of them
   public Optional<AdSpaceDTO> updateAdSpace(Long id, AdSpaceDTO dto) {
-    return adSpaceRepository.findById(id)
+    var updated = transactionTemplate.execute(status -> adSpaceRepository.findById(id)
         .map(entity -> {
           entity.setName(dto.name());
           entity.setPricePerDay(dto.pricePerDay());
@@ -51,12 +164,22 @@ public class AdSpaceService {
           entity.setAvailabilityStatus(dto.availabilityStatus());
           entity.setType(dto.type());
 
-          var saved = adSpaceRepository.save(entity);
-          return toDTO(saved);
-        });
+          var saved = adSpaceRepository.saveAndFlush(entity);
+          return new Versioned(catalogueVersion.increment(), toDTO(saved));
+        }));
+    if (updated.isEmpty()) {
+      return Optional.empty();
+    }
+    var version = updated.get().version();
+    catalogueVersion.advanceTo(version);
+    adSpaces.put(new SimpleKey(version, id), updated.get().adSpace()); // unwrapped, as @Cacheable stores optionals
+    return Optional.of(updated.get().adSpace());
+  }
+
+  private record Versioned(long version, AdSpaceDTO adSpace) {
   }
 
-  private AdSpaceDTO toDTO(AdSpace ad) {
+  static AdSpaceDTO toDTO(AdSpace ad) {
     return new AdSpaceDTO(
         ad.getId(),
         ad.getName(),
@@ -0,0 +1,138 @@
+package generatik.backend.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import generatik.backend.ReplicaRouting;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.repos.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// in-memory bloom filters of the advertiser names / emails already used by a booking, so the
+// uniqueness pre-check of a new booking only reaches the db for values that might be taken:
+// a "definitely new" value costs no query, a "maybe" one a single indexed lookup
+// loaded at startup, then fed by the Created events; the unique constraints stay the real
+// guard (another instance, a race), the filter only saves the lookup
+@Component
+public class AdvertiserFilter {
+  private static final Logger logger = LoggerFactory.getLogger(AdvertiserFilter.class);
+  static final String CHECKS = "advertiser.filter.checks";
+  static final String MEMORY = "advertiser.filter.memory";
+
+  private final BookingRepository bookingRepository;
+  private final long expectedInsertions;
+  private final double falsePositiveRate;
+  private final Counter definitelyNew;
+  private final Counter duplicate;
+  private final Counter falsePositive;
+  private volatile BloomFilter names;
+  private volatile BloomFilter emails;
+
+  public AdvertiserFilter(BookingRepository bookingRepository, MeterRegistry registry,
+      @Value("${advertiser-filter.expected-insertions}") long expectedInsertions,
+      @Value("${advertiser-filter.false-positive-rate}") double falsePositiveRate) {
+    this.bookingRepository = bookingRepository;
+    this.expectedInsertions = expectedInsertions;
+    this.falsePositiveRate = falsePositiveRate;
+    this.names = BloomFilter.forCapacity(expectedInsertions, falsePositiveRate);
+    this.emails = BloomFilter.forCapacity(expectedInsertions, falsePositiveRate);
+    this.definitelyNew = checks(registry, "new");
+    this.duplicate = checks(registry, "duplicate");
+    this.falsePositive = checks(registry, "false_positive");
+    Gauge.builder(MEMORY, this, filter -> filter.names.sizeInBytes() + filter.emails.sizeInBytes())
+        .description("Bytes held by the advertiser name / email bloom filters")
+        .baseUnit("bytes")
+        .register(registry);
+  }
+
+  private static Counter checks(MeterRegistry registry, String outcome) {
+    return Counter.builder(CHECKS)
+        .description("Advertiser name / email lookups: skipped (new), taken (duplicate), or run for nothing")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+  // sized for twice what is there now (or the configured capacity if larger), so the rate
+  // holds while the table doubles; built aside and swapped in, checks keep running meanwhile
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    // from the primary, a lagging replica would leave out the latest advertisers
+    ReplicaRouting.onPrimary(() -> {
+      long capacity = Math.max(expectedInsertions, 2 * bookingRepository.count());
+      var newNames = BloomFilter.forCapacity(capacity, falsePositiveRate);
+      var newEmails = BloomFilter.forCapacity(capacity, falsePositiveRate);
+      long count = 0;
+      try (var advertisers = bookingRepository.streamAdvertisers()) {
+        for (var it = advertisers.iterator(); it.hasNext(); count++) {
+          var advertiser = it.next();
+          newNames.add(advertiser.name());
+          newEmails.add(advertiser.email());
+        }
+      }
+      names = newNames;
+      emails = newEmails;
+      logger.info("Advertiser filter built with {} booking(s): {} KiB, {} hashes, {}% false positives at capacity {}",
+          count, (newNames.sizeInBytes() + newEmails.sizeInBytes()) / 1024, newNames.hashes(),
+          String.format("%.2f", 100 * newNames.expectedFalsePositiveRate()), capacity);
+    });
+  }
+
+  // bookings are created with their advertiser already checked, nothing else adds one
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingEvent(BookingEvent event) {
+    if (event.type() == BookingEvent.Type.Created) {
+      add(event.booking().advertiserName(), event.booking().advertiserEmail());
+    }
+  }
+
+  public void add(String name, String email) {
+    names.add(name);
+    emails.add(email);
+  }
+
+  // true when a booking already uses the name or the email, the name is looked up first
+  public boolean exists(String name, String email) {
+    return !existingNames(Collections.singleton(name)).isEmpty()
+        || !existingEmails(Collections.singleton(email)).isEmpty();
+  }
+
+  public Set<String> existingNames(Collection<String> values) {
+    return existing(values, names, bookingRepository::findExistingAdvertiserNames);
+  }
+
+  public Set<String> existingEmails(Collection<String> values) {
+    return existing(values, emails, bookingRepository::findExistingAdvertiserEmails);
+  }
+
+  // the values that are taken, only those the filter can't rule out go to the db (one query)
+  private Set<String> existing(Collection<String> values, BloomFilter filter,
+      Function<Collection<String>, List<String>> lookup) {
+    var distinct = values.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+    var maybe = distinct.stream().filter(filter::mightContain).collect(Collectors.toSet());
+    definitelyNew.increment(distinct.size() - maybe.size());
+    if (maybe.isEmpty()) {
+      return Set.of();
+    }
+    var taken = Set.copyOf(lookup.apply(maybe));
+    duplicate.increment(taken.size());
+    falsePositive.increment(maybe.size() - taken.size());
+    return taken;
+  }
+}
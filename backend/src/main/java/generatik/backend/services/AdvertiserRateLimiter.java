@@ -0,0 +1,64 @@
+package generatik.backend.services;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// per advertiser token buckets for booking creation, so one agency script can't use up the
+// connection pool for everyone else
+// each bucket is a single AtomicLong in the GCRA form of a token bucket: the time at which the
+// bucket would be full again. Taking a token is one CAS that moves it by one interval, refused
+// while it is more than a whole burst ahead of now. No lock, no refill thread
+// the buckets sit in a bounded caffeine map; an idle bucket is full again after `burst`
+// intervals, so dropping it after that loses nothing
+@Component
+public class AdvertiserRateLimiter {
+  static final String REJECTED = "bookings.rate.limited";
+
+  private final long intervalNanos;
+  private final long burstNanos;
+  private final Cache<String, AtomicLong> buckets;
+  private final Counter rejected;
+
+  public AdvertiserRateLimiter(MeterRegistry registry,
+      @Value("${admission.bookings-per-second}") double perSecond,
+      @Value("${admission.burst}") int burst,
+      @Value("${admission.max-advertisers}") long maxAdvertisers) {
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+    this.burstNanos = intervalNanos * burst;
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(maxAdvertisers)
+        .expireAfterAccess(Duration.ofNanos(burstNanos).plusSeconds(1))
+        .build();
+    this.rejected = Counter.builder(REJECTED)
+        .description("Booking requests refused with a 429, advertiser over its rate")
+        .register(registry);
+  }
+
+  // 0 when the request may go on, else how long (ns) until the advertiser gets a token back
+  public long tryAcquire(String advertiser) {
+    var full = buckets.get(advertiser, key -> new AtomicLong(Long.MIN_VALUE));
+    long now = System.nanoTime();
+    while (true) {
+      long current = full.get();
+      long next = Math.max(current, now) + intervalNanos;
+      long wait = next - burstNanos - now;
+      if (wait > 0) {
+        rejected.increment();
+        return wait;
+      }
+      if (full.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package generatik.backend.services;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import generatik.backend.dtos.OccupancyDTO;
+import generatik.backend.dtos.RevenueDTO;
+import generatik.backend.repos.BookingStatsRepository;
+
+// revenue and occupancy for finance, read from booking_stats_monthly (BookingStatsRepository):
+// a query sums at most months x cities x types x 2 rows, however many bookings there are
+// read-only, runs on a replica when there are some
+@Service
+public class AnalyticsService {
+  private final BookingStatsRepository bookingStatsRepository;
+
+  public AnalyticsService(BookingStatsRepository bookingStatsRepository) {
+    this.bookingStatsRepository = bookingStatsRepository;
+  }
+
+  @Transactional(readOnly = true)
+  public List<RevenueDTO> revenueBy(BookingStatsRepository.Grouping grouping, YearMonth from, YearMonth to) {
+    return bookingStatsRepository.revenueBy(grouping, from, to);
+  }
+
+  @Transactional(readOnly = true)
+  public List<OccupancyDTO> occupancy(YearMonth from, YearMonth to) {
+    long days = ChronoUnit.DAYS.between(from.atDay(1), to.plusMonths(1).atDay(1));
+    return bookingStatsRepository.occupancy(from, to).stream()
+        .map(o -> {
+          long available = o.adSpaces() * days;
+          return new OccupancyDTO(o.city(), o.type(), from, to, o.adSpaces(), o.bookedDays(), available,
+              available == 0 ? 0 : (double) o.bookedDays() / available);
+        })
+        .toList();
+  }
+}
@@ -0,0 +1,179 @@
+package generatik.backend.services;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import generatik.backend.ReplicaRouting;
+import generatik.backend.dtos.BookedRangeDTO;
+import generatik.backend.entities.booking.Status;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.repos.BookingRepository;
+
+// in-memory view of which days each ad space is already taken (Pending or Approved bookings)
+// per ad space the ranges are kept in a skip list keyed by start day; since ranges
+// never overlap, checking [start, end) only needs the one range starting right before end -> O(log n)
+// each instance has its own and only hears about its own bookings, so with several instances it
+// is a hint both ways: a booking created through another one is caught by bookings_no_overlap,
+// and a range a rejection elsewhere freed is checked in the db before a 409 (findConflict)
+@Component
+public class AvailabilityIndex {
+  private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+  static final EnumSet<Status> BLOCKING = EnumSet.of(Status.Pending, Status.Approved);
+  private static final int STRIPES = 64; // power of two, see lockFor
+
+  // a booked range as epoch days, end exclusive (the end day is not billed)
+  public record Range(long bookingId, long startDay, long endDay) {
+  }
+
+  private final BookingRepository bookingRepository;
+  private final ConcurrentHashMap<Long, ConcurrentSkipListMap<Long, Range>> byAdSpace = new ConcurrentHashMap<>();
+  private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+  public AvailabilityIndex(BookingRepository bookingRepository) {
+    this.bookingRepository = bookingRepository;
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new ReentrantLock();
+    }
+  }
+
+  // after the seed ran, so the seeded bookings are included
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    // from the primary, a lagging replica would leave the index missing the latest bookings
+    ReplicaRouting.onPrimary(() -> {
+      byAdSpace.clear();
+      var count = new AtomicInteger();
+      try (var ranges = bookingRepository.streamBookedRanges(BLOCKING, LocalDate.now())) {
+        ranges.forEach(r -> {
+          add(r);
+          count.incrementAndGet();
+        });
+      }
+      logger.info("Availability index built with {} booked range(s) over {} ad space(s)", count.get(),
+          byAdSpace.size());
+    });
+  }
+
+  // writers for the same ad space are serialised by its stripe, writers for other
+  // ad spaces (mostly) are not; check + insert must both happen inside the lock
+  public <T> T withLock(long adSpaceId, Supplier<T> action) {
+    var lock = lockFor(adSpaceId);
+    lock.lock();
+    try {
+      return action.get();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  // same, for a batch touching several ad spaces; stripes are always taken in
+  // ascending order so two batches can't deadlock on each other
+  public <T> T withLocks(Collection<Long> adSpaceIds, Supplier<T> action) {
+    var locks = new TreeMap<Integer, ReentrantLock>();
+    for (var id : adSpaceIds) {
+      int stripe = stripeOf(id);
+      locks.putIfAbsent(stripe, stripes[stripe]);
+    }
+    var taken = new ArrayList<ReentrantLock>(locks.size());
+    try {
+      for (var lock : locks.values()) {
+        lock.lock();
+        taken.add(lock);
+      }
+      return action.get();
+    } finally {
+      for (int i = taken.size() - 1; i >= 0; i--) {
+        taken.get(i).unlock();
+      }
+    }
+  }
+
+  // the booked range overlapping [start, end) that still holds its days, if any
+  // only a hit costs a query: a booking no longer Pending / Approved (rejected or deleted through
+  // another instance) is dropped from the index and the next range checked
+  public Optional<Range> findConflict(long adSpaceId, LocalDate start, LocalDate end) {
+    while (true) {
+      var conflict = indexedConflict(adSpaceId, start, end);
+      if (conflict.isEmpty() || stillBlocking(conflict.get().bookingId())) {
+        return conflict;
+      }
+      logger.debug("Booking {} no longer holds its days on ad space {}, dropped from the index",
+          conflict.get().bookingId(), adSpaceId);
+      remove(adSpaceId, conflict.get().bookingId(), LocalDate.ofEpochDay(conflict.get().startDay()));
+    }
+  }
+
+  // from the primary, a lagging replica could still show it Pending
+  private boolean stillBlocking(long bookingId) {
+    return ReplicaRouting.onPrimary(() -> bookingRepository.existsByIdAndStatusIn(bookingId, BLOCKING));
+  }
+
+  private Optional<Range> indexedConflict(long adSpaceId, LocalDate start, LocalDate end) {
+    var ranges = byAdSpace.get(adSpaceId);
+    if (ranges == null) {
+      return Optional.empty();
+    }
+    var before = ranges.lowerEntry(end.toEpochDay()); // last range starting before our end
+    if (before != null && before.getValue().endDay() > start.toEpochDay()) {
+      return Optional.of(before.getValue());
+    }
+    return Optional.empty();
+  }
+
+  public void add(BookedRangeDTO booked) {
+    var range = new Range(booked.bookingId(), booked.startDate().toEpochDay(), booked.endDate().toEpochDay());
+    var previous = byAdSpace
+        .computeIfAbsent(booked.adSpaceId(), id -> new ConcurrentSkipListMap<>())
+        .putIfAbsent(range.startDay(), range);
+    if (previous != null && previous.bookingId() != range.bookingId()) {
+      // only possible with overlapping rows written before this check existed
+      logger.warn("Bookings {} and {} overlap on ad space {}", previous.bookingId(), range.bookingId(),
+          booked.adSpaceId());
+    }
+  }
+
+  public void remove(long adSpaceId, long bookingId, LocalDate start) {
+    var ranges = byAdSpace.get(adSpaceId);
+    if (ranges != null) {
+      ranges.computeIfPresent(start.toEpochDay(), (day, range) -> range.bookingId() == bookingId ? null : range);
+    }
+  }
+
+  // a rejected booking frees its days, but only once the status change is committed;
+  // until then a concurrent create is (safely) refused
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingEvent(BookingEvent event) {
+    var booking = event.booking();
+    if (event.type() == BookingEvent.Type.Rejected && booking.startDate() != null) {
+      remove(booking.adSpaceId(), booking.id(), booking.startDate());
+    }
+  }
+
+  private ReentrantLock lockFor(long adSpaceId) {
+    return stripes[stripeOf(adSpaceId)];
+  }
+
+  private static int stripeOf(long adSpaceId) {
+    int h = Long.hashCode(adSpaceId);
+    h ^= (h >>> 16); // spread, ids are mostly sequential
+    return h & (STRIPES - 1);
+  }
+}
@@ -0,0 +1,94 @@
+package generatik.backend.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// set of strings that answers "definitely not in it" or "maybe in it", in a fixed bit array
+// sized for the expected number of entries and false-positive rate (m = -n ln p / ln2^2 bits,
+// k = m / n ln2 probes). The k probes all come from one 64 bit hash (h1 + i * h2),
+// adding is an atomic OR per probe, so readers and writers never lock
+// no removal: a value gone from the db just stays a (harmless) "maybe"
+final class BloomFilter {
+  private final AtomicLongArray words;
+  private final long bits;
+  private final int hashes;
+  private final long expectedInsertions;
+
+  private BloomFilter(long bits, int hashes, long expectedInsertions) {
+    this.words = new AtomicLongArray((int) ((bits + 63) >>> 6));
+    this.bits = (long) words.length() << 6;
+    this.hashes = hashes;
+    this.expectedInsertions = expectedInsertions;
+  }
+
+  static BloomFilter forCapacity(long expectedInsertions, double falsePositiveRate) {
+    long n = Math.max(1, expectedInsertions);
+    double ln2 = Math.log(2);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+    int k = Math.max(1, (int) Math.round((double) m / n * ln2));
+    return new BloomFilter(Math.max(64, m), k, n);
+  }
+
+  void add(String value) {
+    if (value == null) {
+      return;
+    }
+    long h1 = hash(value);
+    long h2 = Long.rotateLeft(h1, 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = index(h1 + i * h2);
+      long mask = 1L << bit;
+      int word = (int) (bit >>> 6);
+      long current = words.get(word);
+      while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) { // skipped when already set
+        current = words.get(word);
+      }
+    }
+  }
+
+  boolean mightContain(String value) {
+    if (value == null) {
+      return false;
+    }
+    long h1 = hash(value);
+    long h2 = Long.rotateLeft(h1, 32);
+    for (int i = 1; i <= hashes; i++) {
+      long bit = index(h1 + i * h2);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  long sizeInBytes() {
+    return (long) words.length() * Long.BYTES;
+  }
+
+  int hashes() {
+    return hashes;
+  }
+
+  // (1 - e^(-k n / m))^k, the rate it was sized for once it holds expectedInsertions values
+  double expectedFalsePositiveRate() {
+    return Math.pow(1 - Math.exp(-(double) hashes * expectedInsertions / bits), hashes);
+  }
+
+  private long index(long combined) {
+    return (combined & Long.MAX_VALUE) % bits;
+  }
+
+  // fnv-1a over the chars, then the murmur3 finalizer so both halves are well mixed
+  private static long hash(String value) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      h ^= value.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,201 @@
+package generatik.backend.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import generatik.backend.entities.booking.Status;
+import generatik.backend.events.BookingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// pushes committed BookingEvents to the open Server-Sent Events streams of the admin dashboards
+// an open stream is only its SseEmitter (servlet async, no thread held while idle); the event
+// listener puts the event into the buffer of every matching subscriber and returns, each buffer
+// is written out by a virtual thread that only exists while there is something to send, so a
+// slow dashboard blocks its own writes and nothing else
+// a buffer keeps the latest event per booking (Created then Approved before the first was sent
+// only sends the Approved) and at most buffer-size bookings; past that the oldest are dropped and
+// the subscriber gets a "resync" event, its list is stale and should be loaded again
+@Component
+public class BookingEventStream {
+  static final String SUBSCRIBERS = "booking.events.subscribers";
+  static final String DROPPED = "booking.events.dropped";
+  static final String RESYNC = "resync";
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger open = new AtomicInteger(); // the size of subscribers, reserved before adding
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final int maxSubscribers;
+  private final int bufferSize;
+  private final Duration timeout;
+  private final Counter dropped;
+
+  public BookingEventStream(MeterRegistry registry,
+      @Value("${booking-events.max-subscribers}") int maxSubscribers,
+      @Value("${booking-events.buffer-size}") int bufferSize,
+      @Value("${booking-events.timeout}") Duration timeout) {
+    this.maxSubscribers = maxSubscribers;
+    this.bufferSize = bufferSize;
+    this.timeout = timeout;
+    Gauge.builder(SUBSCRIBERS, open, AtomicInteger::get)
+        .description("Open booking event streams")
+        .register(registry);
+    this.dropped = Counter.builder(DROPPED)
+        .description("Booking events dropped for a subscriber that was not reading fast enough")
+        .register(registry);
+  }
+
+  // a new stream of the events matching both filters, empty when max-subscribers are already open
+  public Optional<SseEmitter> subscribe(Optional<Status> status, Optional<Long> adSpaceId) {
+    // a slot is taken before the check, two requests racing for the last one cannot both get it
+    if (open.incrementAndGet() > maxSubscribers) {
+      open.decrementAndGet();
+      return Optional.empty();
+    }
+    var emitter = new SseEmitter(timeout.toMillis()); // the browser's EventSource reconnects by itself
+    var subscriber = new Subscriber(emitter, status, adSpaceId);
+    emitter.onCompletion(() -> unsubscribe(subscriber));
+    emitter.onTimeout(emitter::complete);
+    emitter.onError(ex -> unsubscribe(subscriber));
+    subscribers.add(subscriber);
+    return Optional.of(emitter);
+  }
+
+  // called more than once for a stream (an error, then the completion), the slot is freed once
+  private void unsubscribe(Subscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      open.decrementAndGet();
+    }
+  }
+
+  // after commit, a dashboard must never see a booking that was rolled back
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingEvent(BookingEvent event) {
+    for (var subscriber : subscribers) {
+      if (subscriber.accepts(event)) {
+        subscriber.offer(event);
+      }
+    }
+  }
+
+  // an sse comment on quiet streams: keeps proxies from closing them and finds the dead ones
+  @Scheduled(fixedDelayString = "${booking-events.heartbeat-interval}")
+  public void heartbeat() {
+    subscribers.forEach(Subscriber::ping);
+  }
+
+  int subscriberCount() {
+    return open.get();
+  }
+
+  private final class Subscriber {
+    private final SseEmitter emitter;
+    private final Optional<Status> status;
+    private final Optional<Long> adSpaceId;
+    // guarded by this: latest event per booking id, oldest first
+    private final LinkedHashMap<Long, BookingEvent> pending = new LinkedHashMap<>();
+    private boolean overflowed;
+    private boolean ping;
+    private boolean sending; // a sender is running, it picks up whatever is added meanwhile
+
+    Subscriber(SseEmitter emitter, Optional<Status> status, Optional<Long> adSpaceId) {
+      this.emitter = emitter;
+      this.status = status;
+      this.adSpaceId = adSpaceId;
+    }
+
+    // a status filter gets the bookings entering that status and, for Pending, also the ones
+    // leaving it (an Approved / Rejected event is always a Pending booking decided), else a
+    // dashboard of the Pending ones would never hear that one is gone
+    boolean accepts(BookingEvent event) {
+      var booking = event.booking();
+      return status.map(s -> s == booking.status()
+          || s == Status.Pending && event.type() != BookingEvent.Type.Created).orElse(true)
+          && adSpaceId.map(id -> id.equals(booking.adSpaceId())).orElse(true);
+    }
+
+    void offer(BookingEvent event) {
+      synchronized (this) {
+        pending.remove(event.booking().id()); // re-inserted last, it is the newest change
+        pending.put(event.booking().id(), event);
+        if (pending.size() > bufferSize) {
+          var oldest = pending.keySet().iterator();
+          oldest.next();
+          oldest.remove();
+          overflowed = true;
+          dropped.increment();
+        }
+        if (sending) {
+          return;
+        }
+        sending = true;
+      }
+      senders.execute(this::send);
+    }
+
+    void ping() {
+      synchronized (this) {
+        ping = true;
+        if (sending) {
+          return;
+        }
+        sending = true;
+      }
+      senders.execute(this::send);
+    }
+
+    // the only place that writes to the emitter, one sender at a time
+    private void send() {
+      while (true) {
+        ArrayList<BookingEvent> events;
+        boolean resync;
+        boolean heartbeat;
+        synchronized (this) {
+          if (pending.isEmpty() && !overflowed && !ping) {
+            sending = false;
+            return;
+          }
+          events = new ArrayList<>(pending.values());
+          pending.clear();
+          resync = overflowed;
+          heartbeat = ping;
+          overflowed = false;
+          ping = false;
+        }
+        try {
+          if (resync) {
+            emitter.send(SseEmitter.event().name(RESYNC).data("{}", MediaType.APPLICATION_JSON));
+          }
+          for (var event : events) {
+            emitter.send(SseEmitter.event()
+                .name(event.type().name())
+                .data(event.booking(), MediaType.APPLICATION_JSON));
+          }
+          if (heartbeat) {
+            emitter.send(SseEmitter.event().comment("heartbeat"));
+          }
+        } catch (IOException | IllegalStateException ex) {
+          // client gone (the container completes the emitter) or emitter already completed
+          unsubscribe(this);
+          return; // sending stays true, nothing is queued for a removed subscriber anymore
+        }
+      }
+    }
+  }
+}
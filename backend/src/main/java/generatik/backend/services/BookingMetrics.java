@@ -0,0 +1,61 @@
+package generatik.backend.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import generatik.backend.entities.booking.Status;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.repos.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// business meters of the booking flow, fed by BookingEvent once the change is committed
+// the request only pays for a counter increment: the ad space's city / type come with the
+// event, and a scrape never runs a count(*) over bookings: the pending backlog is
+// counted in the db every pending-refresh-interval and moved by this instance's own events in
+// between; the events of the other instances only show up at the next count, so every instance
+// reports the whole backlog (aggregate it with max, not sum)
+@Component
+public class BookingMetrics {
+  static final String STATUS_CHANGES = "booking.status.changes";
+  static final String PENDING = "bookings.pending";
+  static final String UNKNOWN = "unknown"; // ad space deleted meanwhile
+
+  private final MeterRegistry registry;
+  private final BookingRepository bookingRepository;
+  private final AtomicLong pending = new AtomicLong();
+
+  public BookingMetrics(MeterRegistry registry, BookingRepository bookingRepository) {
+    this.registry = registry;
+    this.bookingRepository = bookingRepository;
+    Gauge.builder(PENDING, pending, AtomicLong::get)
+        .description("Bookings waiting for a moderator, across all instances")
+        .register(registry);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${booking-metrics.pending-refresh-interval}")
+  public void countPending() {
+    pending.set(bookingRepository.countByStatus(Status.Pending));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingEvent(BookingEvent event) {
+    var booking = event.booking();
+    pending.addAndGet(event.type() == BookingEvent.Type.Created ? 1 : -1);
+
+    Counter.builder(STATUS_CHANGES)
+        .description("Bookings created (Pending), approved and rejected")
+        .tag("status", booking.status().name())
+        .tag("city", event.city() == null ? UNKNOWN : event.city().name())
+        .tag("type", event.adSpaceType() == null ? UNKNOWN : event.adSpaceType().name())
+        .register(registry)
+        .increment();
+  }
+}
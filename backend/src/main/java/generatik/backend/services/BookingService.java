@@ -1,144 +1,438 @@
 package generatik.backend.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import generatik.backend.dtos.BookedRangeDTO;
 import generatik.backend.dtos.BookingCreationDTO;
 import generatik.backend.dtos.BookingDTO;
+import generatik.backend.dtos.BookingResultDTO;
+import generatik.backend.entities.adspace.AdSpace;
 import generatik.backend.entities.booking.Booking;
 import generatik.backend.entities.booking.Status;
+import generatik.backend.events.BookingEvent;
 import generatik.backend.repos.AdSpaceRepository;
+import generatik.backend.repos.BookingExportRepository;
 import generatik.backend.repos.BookingRepository;
+import generatik.backend.repos.BookingStatsRepository;
+import generatik.backend.repos.BookingTransitionRepository;
+import generatik.backend.repos.IdempotencyKeyRepository;
+import generatik.backend.repos.OutboxRepository;
+import tools.jackson.databind.json.JsonMapper;
 
 @Service
 public class BookingService {
+  static final int MAX_NAME_LENGTH = 20; // advertiser_name is varchar(20)
   private final BookingRepository bookingRepository;
   private final AdSpaceRepository adSpaceRepository;
+  private final BookingExportRepository bookingExportRepository;
+  private final BookingTransitionRepository bookingTransitionRepository;
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final OutboxRepository outboxRepository;
+  private final BookingStatsRepository bookingStatsRepository;
+  private final IdempotencyStore idempotencyStore;
+  private final JsonMapper jsonMapper;
+  private final AvailabilityIndex availabilityIndex;
+  private final AdvertiserFilter advertiserFilter;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate transactionTemplate;
 
-  public BookingService(BookingRepository bookingRepository, AdSpaceRepository adSpaceRepository) {
+  public BookingService(BookingRepository bookingRepository, AdSpaceRepository adSpaceRepository,
+      BookingExportRepository bookingExportRepository, BookingTransitionRepository bookingTransitionRepository,
+      IdempotencyKeyRepository idempotencyKeyRepository, OutboxRepository outboxRepository,
+      BookingStatsRepository bookingStatsRepository,
+      IdempotencyStore idempotencyStore, JsonMapper jsonMapper, AvailabilityIndex availabilityIndex,
+      AdvertiserFilter advertiserFilter, ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager) {
     this.bookingRepository = bookingRepository;
     this.adSpaceRepository = adSpaceRepository;
+    this.bookingExportRepository = bookingExportRepository;
+    this.bookingTransitionRepository = bookingTransitionRepository;
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.outboxRepository = outboxRepository;
+    this.bookingStatsRepository = bookingStatsRepository;
+    this.idempotencyStore = idempotencyStore;
+    this.jsonMapper = jsonMapper;
+    this.availabilityIndex = availabilityIndex;
+    this.advertiserFilter = advertiserFilter;
+    this.eventPublisher = eventPublisher;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  // the date rules of a booking request, the message of the first one broken
+  public static Optional<String> checkDates(LocalDate start, LocalDate end) {
+    var today = LocalDate.now();
+    if (start == null || end == null) { // both must not be null
+      return Optional.of("startDate and endDate are required");
+    }
+    if (!start.isAfter(today) || !end.isAfter(today)) { // both must be in the future
+      return Optional.of("startDate and endDate must both be in the future");
+    }
+    if (!end.isAfter(start)) { // endDate must be after startDate
+      return Optional.of("endDate must be after startDate");
+    }
+    return Optional.empty();
   }
 
   public BookingDTO createBooking(BookingCreationDTO dto) {
+    return createBooking(dto, null, null);
+  }
+
+  // with an Idempotency-Key: a retry gets the booking the first request created, without
+  // running again (IdempotencyStore), the key is stored in the booking's own transaction
+  public IdempotencyStore.Result createBooking(BookingCreationDTO dto, String idempotencyKey) {
+    return idempotencyStore.once(idempotencyKey, dto, requestHash -> createBooking(dto, idempotencyKey, requestHash));
+  }
+
+  private BookingDTO createBooking(BookingCreationDTO dto, String idempotencyKey, String requestHash) {
     var adSpaceOptional = this.adSpaceRepository.findById(dto.adSpaceId());// we get first the actual space, to compute
                                                                            // the total price
     if (adSpaceOptional.isEmpty()) {
       throw new IllegalArgumentException("Ad space not found: " + dto.adSpaceId());
     }
     var adSpace = adSpaceOptional.get();
-    long days = ChronoUnit.DAYS.between(dto.startDate(), dto.endDate());
+    // a new name / email costs no query here, the unique constraints still catch a race
+    if (advertiserFilter.exists(dto.advertiserName(), dto.advertiserEmail())) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT, "Advertiser name or email already exists");
+    }
+    var entity = newBooking(dto, adSpace);
+
+    // check + insert under the ad space's lock, so two requests for the same days can't both pass the check
+    var created = availabilityIndex.withLock(adSpace.getId(), () -> {
+      availabilityIndex.findConflict(adSpace.getId(), dto.startDate(), dto.endDate())
+          .ifPresent(conflict -> { // edge case, the days are already taken by a pending / approved booking
+            throw new ResponseStatusException(
+                HttpStatus.CONFLICT,
+                "Ad space " + adSpace.getId() + " is already booked from " + LocalDate.ofEpochDay(conflict.startDay())
+                    + " to " + LocalDate.ofEpochDay(conflict.endDay()));
+          });
+
+      var savedBooking = save(entity, idempotencyKey, requestHash);
+      availabilityIndex.add(new BookedRangeDTO(savedBooking.getId(), adSpace.getId(), savedBooking.getStartDate(),
+          savedBooking.getEndDate()));
+      return toDTO(savedBooking);
+    });
+    eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.Created, created, adSpace.getCity(),
+        adSpace.getType()));
+    return created;
+  }
+
+  // creates a whole campaign with a handful of round trips instead of 3 per item:
+  // one findAllById for the ad spaces, at most one lookup each for taken names / emails
+  // (only the values the AdvertiserFilter can't rule out), and the
+  // inserts sent as jdbc batches with ids from the pooled sequence (one nextval per 50 rows)
+  // every item gets its own result, a bad item never fails the others
+  public List<BookingResultDTO> createBookings(List<BookingCreationDTO> dtos) {
+    var results = new BookingResultDTO[dtos.size()];
+
+    var adSpaces = adSpaceRepository.findAllById(dtos.stream()
+        .map(BookingCreationDTO::adSpaceId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet()))
+        .stream()
+        .collect(Collectors.toMap(AdSpace::getId, Function.identity()));
+    var names = dtos.stream().map(BookingCreationDTO::advertiserName).filter(Objects::nonNull).toList();
+    var emails = dtos.stream().map(BookingCreationDTO::advertiserEmail).filter(Objects::nonNull).toList();
+    var takenNames = new HashSet<>(advertiserFilter.existingNames(names));
+    var takenEmails = new HashSet<>(advertiserFilter.existingEmails(emails));
+
+    // everything that can be checked without locks
+    var candidates = new ArrayList<Integer>();
+    for (int i = 0; i < dtos.size(); i++) {
+      var dto = dtos.get(i);
+      var invalid = checkDates(dto.startDate(), dto.endDate());
+      if (invalid.isEmpty() && (dto.advertiserName() == null || dto.advertiserName().isBlank()
+          || dto.advertiserEmail() == null || dto.advertiserEmail().isBlank())) {
+        invalid = Optional.of("advertiserName and advertiserEmail are required");
+      }
+      if (invalid.isEmpty() && dto.advertiserName().length() > MAX_NAME_LENGTH) {
+        invalid = Optional.of("Name is too long - max 20 characters permitted");
+      }
+      if (invalid.isPresent()) {
+        results[i] = failed(i, HttpStatus.BAD_REQUEST, invalid.get());
+      } else if (!adSpaces.containsKey(dto.adSpaceId())) {
+        results[i] = failed(i, HttpStatus.NOT_FOUND, "Ad space not found: " + dto.adSpaceId());
+      } else if (!takenNames.add(dto.advertiserName()) || !takenEmails.add(dto.advertiserEmail())) {
+        // already in the db or earlier in this same batch
+        results[i] = failed(i, HttpStatus.CONFLICT, "Advertiser name or email already exists");
+      } else {
+        candidates.add(i);
+      }
+    }
+
+    var created = availabilityIndex.withLocks(adSpaces.keySet(), () -> {
+      // overlap check against the index and against the items accepted just before in this batch
+      var accepted = new ArrayList<Integer>();
+      var entities = new ArrayList<Booking>();
+      var acceptedRanges = new HashMap<Long, List<BookingCreationDTO>>();
+      for (int i : candidates) {
+        var dto = dtos.get(i);
+        var conflict = availabilityIndex.findConflict(dto.adSpaceId(), dto.startDate(), dto.endDate());
+        boolean overlapsBatch = acceptedRanges.getOrDefault(dto.adSpaceId(), List.of()).stream()
+            .anyMatch(o -> o.startDate().isBefore(dto.endDate()) && dto.startDate().isBefore(o.endDate()));
+        if (conflict.isPresent() || overlapsBatch) {
+          results[i] = failed(i, HttpStatus.CONFLICT, "Ad space " + dto.adSpaceId() + " is already booked between "
+              + dto.startDate() + " and " + dto.endDate());
+          continue;
+        }
+        acceptedRanges.computeIfAbsent(dto.adSpaceId(), id -> new ArrayList<>()).add(dto);
+        accepted.add(i);
+        entities.add(newBooking(dto, adSpaces.get(dto.adSpaceId())));
+      }
+
+      List<BookingDTO> saved;
+      try {
+        // one transaction, hibernate flushes the inserts in jdbc batches on commit
+        // (the ids are already known, the pooled sequence hands them out on save)
+        saved = transactionTemplate.execute(status -> {
+          var bookings = bookingRepository.saveAll(entities).stream()
+              .map(BookingService::toDTO)
+              .toList();
+          outboxRepository.insert(BookingEvent.Type.Created, bookings);
+          return bookings;
+        });
+      } catch (DataIntegrityViolationException ex) {
+        // lost a race (same name / email / days written meanwhile by someone else):
+        // redo these items one by one so only the offending ones fail
+        createOneByOne(dtos, accepted, results);
+        return List.<BookingDTO>of(); // createBooking already indexed + published them
+      }
+
+      for (int k = 0; k < accepted.size(); k++) {
+        var booking = saved.get(k);
+        availabilityIndex.add(new BookedRangeDTO(booking.id(), booking.adSpaceId(), booking.startDate(),
+            booking.endDate()));
+        results[accepted.get(k)] = new BookingResultDTO(accepted.get(k), HttpStatus.OK.value(), booking, null);
+      }
+      return saved;
+    });
+
+    for (var booking : created) {
+      var adSpace = adSpaces.get(booking.adSpaceId());
+      eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.Created, booking, adSpace.getCity(),
+          adSpace.getType()));
+    }
+    return Arrays.asList(results);
+  }
+
+  private void createOneByOne(List<BookingCreationDTO> dtos, List<Integer> indexes, BookingResultDTO[] results) {
+    for (int i : indexes) {
+      try {
+        results[i] = new BookingResultDTO(i, HttpStatus.OK.value(), createBooking(dtos.get(i)), null);
+      } catch (ResponseStatusException ex) {
+        results[i] = failed(i, HttpStatus.valueOf(ex.getStatusCode().value()), ex.getReason());
+      } catch (IllegalArgumentException ex) { // its ad space was deleted since the batch looked it up
+        results[i] = failed(i, HttpStatus.NOT_FOUND, ex.getMessage());
+      } catch (DataIntegrityViolationException ex) { // a constraint save() does not translate
+        results[i] = FOREIGN_KEY_VIOLATION.equals(sqlState(ex))
+            ? failed(i, HttpStatus.NOT_FOUND, "Ad space not found: " + dtos.get(i).adSpaceId())
+            : failed(i, HttpStatus.BAD_REQUEST, "Booking refused by the database");
+      }
+    }
+  }
+
+  private static BookingResultDTO failed(int index, HttpStatus status, String message) {
+    return new BookingResultDTO(index, status.value(), null, message);
+  }
 
+  private Booking newBooking(BookingCreationDTO dto, AdSpace adSpace) {
+    long days = ChronoUnit.DAYS.between(dto.startDate(), dto.endDate());
     int totalCost = (int) days * adSpace.getPricePerDay();
     var entity = new Booking(dto.advertiserName(), dto.advertiserEmail(), dto.startDate(), dto.endDate(), totalCost);
     entity.setAdSpace(adSpace);
+    return entity;
+  }
 
+  // postgres error codes we translate, instead of matching on the driver's message text
+  static final String STRING_DATA_RIGHT_TRUNCATION = "22001";
+  static final String UNIQUE_VIOLATION = "23505";
+  static final String FOREIGN_KEY_VIOLATION = "23503";
+  static final String EXCLUSION_VIOLATION = "23P01"; // bookings_no_overlap
+
+  private Booking save(Booking entity, String idempotencyKey, String requestHash) {
     try {
-      var savedBooking = this.bookingRepository.save(entity);
-      return new BookingDTO(savedBooking.getId(), savedBooking.getAdSpace().getId(), savedBooking.getAdvertiserName(),
-          savedBooking.getAdvertiserEmail(), savedBooking.getStartDate(), savedBooking.getEndDate(),
-          savedBooking.getCreatedAt(), savedBooking.getStatus(), totalCost);
-    } catch (DataIntegrityViolationException ex) { // in case some trigger of uniquness from db triggers
-      if (ex.getMessage().contains("value too long for type character varying(20)"))
+      // the booking, its outbox event and the idempotency key commit together or not at all
+      return transactionTemplate.execute(status -> {
+        // flushed here, so constraint errors land in the catch below
+        var saved = bookingRepository.saveAndFlush(entity);
+        var dto = toDTO(saved);
+        outboxRepository.insert(BookingEvent.Type.Created, List.of(dto));
+        if (idempotencyKey != null) {
+          idempotencyKeyRepository.insert(idempotencyKey, requestHash, dto);
+        }
+        return saved;
+      });
+    } catch (DataIntegrityViolationException ex) { // in case some constraint from db triggers
+      var sqlState = sqlState(ex);
+      if (STRING_DATA_RIGHT_TRUNCATION.equals(sqlState))
         throw new ResponseStatusException(
             HttpStatus.BAD_REQUEST,
             "Name is too long - max 20 characters permitted",
             ex);
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST,
-          "Advertiser name or email already exists" + ex.getMessage(),
-          ex);
+      if (EXCLUSION_VIOLATION.equals(sqlState)) // another instance booked the same days first
+        throw new ResponseStatusException(
+            HttpStatus.CONFLICT,
+            "Ad space " + entity.getAdSpace().getId() + " is already booked between " + entity.getStartDate()
+                + " and " + entity.getEndDate(),
+            ex);
+      if (UNIQUE_VIOLATION.equals(sqlState))
+        throw new ResponseStatusException(
+            HttpStatus.CONFLICT,
+            "Advertiser name or email already exists",
+            ex);
+      throw ex;
+    }
+  }
 
+  private static String sqlState(Throwable ex) {
+    for (var cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+        return sqlException.getSQLState();
+      }
     }
+    return null;
   }
 
+  // read-only paths select straight into BookingDTO (one query, no entities)
+  // and run on a replica when there are some
+  @Transactional(readOnly = true)
   public Optional<BookingDTO> getById(Long id) {
-    return bookingRepository.findById(id)
-        .map(b -> new BookingDTO(
-            b.getId(),
-            b.getAdSpace().getId(),
-            b.getAdvertiserName(),
-            b.getAdvertiserEmail(),
-            b.getStartDate(),
-            b.getEndDate(),
-            b.getCreatedAt(),
-            b.getStatus(),
-            b.getTotalCost()));
-  }
-
-  public List<BookingDTO> getAll(Optional<Status> status) {
-    return bookingRepository.findAll()
-        .stream()
-        .filter(b -> status.map(s -> b.getStatus() == s).orElse(true))
-        .map(b -> new BookingDTO(
-            b.getId(),
-            b.getAdSpace().getId(),
-            b.getAdvertiserName(),
-            b.getAdvertiserEmail(),
-            b.getStartDate(),
-            b.getEndDate(),
-            b.getCreatedAt(),
-            b.getStatus(),
-            b.getTotalCost()))
-        .toList();
+    return bookingRepository.findDTOById(id);
+  }
+
+  // one keyset page of bookings, the status filter runs in the db
+  // afterId is the last id of the previous page (0 for the first page)
+  @Transactional(readOnly = true)
+  public List<BookingDTO> getAll(Optional<Status> status, long afterId, int limit) {
+    var page = Limit.of(limit);
+    return status.isPresent()
+        ? bookingRepository.findDTOPageByStatus(status.get(), afterId, page)
+        : bookingRepository.findDTOPage(afterId, page);
+  }
+
+  // writes every matching booking as one json object per line (ndjson), straight
+  // from the jdbc cursor to the output, nothing is collected in between
+  public void exportAll(Optional<Status> status, OutputStream out) {
+    bookingExportRepository.forEach(status, dto -> {
+      try {
+        out.write(jsonMapper.writeValueAsBytes(dto));
+        out.write('\n');
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex); // client went away, stop reading the cursor
+      }
+    });
   }
 
+  // approve / reject are a single compare-and-set update (status = 'Pending' in the where
+  // clause), so of two moderators acting on the same booking at once only one changes it
+  // and the other gets a 409, without a select before or a row lock held in between
+  @Transactional
   public BookingDTO approveBooking(Long id) {
-    // edge case not finding the booking
-    var booking = bookingRepository.findById(id)
-        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found: " + id));
-
-    if (booking.getStatus() != Status.Pending) { // edge case status not being pending, it can be
-                                                 // already accepted / rejected
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST,
-          "Only pending bookings can be approved");
+    return single(transitionPending(List.of(id), Status.Approved, BookingEvent.Type.Approved, "approved"));
+  }
+
+  @Transactional
+  public BookingDTO rejectBooking(Long id) {
+    return single(transitionPending(List.of(id), Status.Rejected, BookingEvent.Type.Rejected, "rejected"));
+  }
+
+  private static BookingDTO single(List<BookingResultDTO> results) {
+    var result = results.get(0);
+    if (result.booking() == null) {
+      throw new ResponseStatusException(HttpStatus.valueOf(result.status()), result.message());
     }
+    return result.booking();
+  }
 
-    booking.setStatus(Status.Approved);
-    var saved = bookingRepository.save(booking);
-    return new BookingDTO(
-        saved.getId(),
-        saved.getAdSpace().getId(),
-        saved.getAdvertiserName(),
-        saved.getAdvertiserEmail(),
-        saved.getStartDate(),
-        saved.getEndDate(),
-        saved.getCreatedAt(),
-        saved.getStatus(),
-        saved.getTotalCost());
+  @Transactional
+  public List<BookingResultDTO> approveBookings(List<Long> ids) {
+    return transitionPending(ids, Status.Approved, BookingEvent.Type.Approved, "approved");
   }
 
-  public BookingDTO rejectBooking(Long id) {
-    // edge case not finding the booking
-    var booking = bookingRepository.findById(id)
-        .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Booking not found: " + id));
-
-    if (booking.getStatus() != Status.Pending) {// edge case status not being pending, it can be
-                                                // already accepted / rejected
-      throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST,
-          "Only pending bookings can be rejected");
+  @Transactional
+  public List<BookingResultDTO> rejectBookings(List<Long> ids) {
+    return transitionPending(ids, Status.Rejected, BookingEvent.Type.Rejected, "rejected");
+  }
+
+  // bulk approve / reject: one conditional update for the whole list instead of a
+  // select + update per id; the results follow the order of ids (a repeated id gets
+  // the same result each time) with the status the single endpoint would have answered
+  private List<BookingResultDTO> transitionPending(List<Long> ids, Status to, BookingEvent.Type type, String verb) {
+    var distinct = new LinkedHashSet<Long>();
+    ids.stream().filter(Objects::nonNull).forEach(distinct::add);
+    var transitions = distinct.isEmpty()
+        ? Map.<Long, BookingTransitionRepository.Transition>of()
+        : bookingTransitionRepository.transitionPending(distinct, to).stream()
+            .collect(Collectors.toMap(BookingTransitionRepository.Transition::id, Function.identity()));
+
+    var results = new ArrayList<BookingResultDTO>(ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      var id = ids.get(i);
+      var transition = id == null ? null : transitions.get(id);
+      if (id == null) {
+        results.add(failed(i, HttpStatus.BAD_REQUEST, "Booking id is required"));
+      } else if (transition.previousStatus() == null) { // edge case not finding the booking
+        results.add(failed(i, HttpStatus.NOT_FOUND, "Booking not found: " + id));
+      } else if (transition.booking() == null && transition.previousStatus() == Status.Pending) {
+        // still pending when the statement started, changed by a concurrent request before our update got the row
+        results.add(failed(i, HttpStatus.CONFLICT, "Booking " + id + " was changed by another request"));
+      } else if (transition.booking() == null) { // already accepted / rejected
+        results.add(failed(i, HttpStatus.BAD_REQUEST, "Only pending bookings can be " + verb));
+      } else {
+        results.add(new BookingResultDTO(i, HttpStatus.OK.value(), transition.booking(), null));
+      }
     }
 
-    booking.setStatus(Status.Rejected);
-    var saved = bookingRepository.save(booking);
+    var changedTransitions = transitions.values().stream()
+        .filter(transition -> transition.booking() != null)
+        .toList();
+    var changed = changedTransitions.stream().map(BookingTransitionRepository.Transition::booking).toList();
+    // in the caller's transaction, with the update
+    outboxRepository.insert(type, changed);
+    bookingStatsRepository.add(changed.stream().map(BookingDTO::id).toList());
+    // listeners run after commit, a rejection frees the days in the availability index
+    changedTransitions.forEach(transition -> eventPublisher.publishEvent(
+        new BookingEvent(type, transition.booking(), transition.city(), transition.adSpaceType())));
+    return results;
+  }
+
+  // adSpace is lazy, getId() on the proxy does not load the ad space
+  static BookingDTO toDTO(Booking b) {
     return new BookingDTO(
-        saved.getId(),
-        saved.getAdSpace().getId(),
-        saved.getAdvertiserName(),
-        saved.getAdvertiserEmail(),
-        saved.getStartDate(),
-        saved.getEndDate(),
-        saved.getCreatedAt(),
-        saved.getStatus(),
-        saved.getTotalCost());
+        b.getId(),
+        b.getAdSpace().getId(),
+        b.getAdvertiserName(),
+        b.getAdvertiserEmail(),
+        b.getStartDate(),
+        b.getEndDate(),
+        b.getCreatedAt(),
+        b.getStatus(),
+        b.getTotalCost());
   }
 
 }
@@ -0,0 +1,57 @@
+package generatik.backend.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// version of the ad space catalogue, the ETag of the catalogue endpoints
+// kept in catalogue_version and bumped in the transaction of every ad space update / delete,
+// so all instances share it; each one holds the last version it has seen in memory (its own
+// writes right after commit, the others' within version-refresh-interval), so a request
+// revalidating an unchanged listing gets a 304 without any sql
+// the caches are keyed by the version the request read (AdSpaceService), a value is only
+// ever served with the tag it was loaded under
+@Component
+public class CatalogueVersion {
+  private final JdbcTemplate jdbcTemplate;
+  private final AtomicLong version = new AtomicLong();
+
+  // the jdbc template of spring boot, created after liquibase ran
+  public CatalogueVersion(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    refresh();
+  }
+
+  public long current() {
+    return version.get();
+  }
+
+  // weak, the body is the same json whether it goes out gzipped or not; the row starts at the
+  // time the db was created, so a recreated db never confirms a tag handed out before
+  public static String etag(long version) {
+    return "W/\"" + Long.toString(version, 36) + "\"";
+  }
+
+  // joins the caller's transaction, the new version is only seen (advanceTo) once it committed
+  long increment() {
+    return jdbcTemplate.queryForObject("update catalogue_version set version = version + 1 returning version",
+        Long.class);
+  }
+
+  // the version of the database the caller's transaction runs on, a replica may be behind
+  long read() {
+    return jdbcTemplate.queryForObject("select version from catalogue_version", Long.class);
+  }
+
+  void advanceTo(long committed) {
+    version.accumulateAndGet(committed, Math::max);
+  }
+
+  // picks up the versions committed by the other instances
+  @Scheduled(fixedDelayString = "${catalogue.version-refresh-interval}")
+  public void refresh() {
+    advanceTo(read());
+  }
+}
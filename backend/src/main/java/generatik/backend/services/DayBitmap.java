@@ -0,0 +1,85 @@
+package generatik.backend.services;
+
+// packed set of epoch days, bit (day & 63) of word (day >> 6) is set when the day is taken
+// the word array only spans the words that were ever touched (grown on demand), so an
+// ad space booked over a couple of years costs a few dozen longs
+final class DayBitmap {
+  private long firstWord; // word index of words[0]
+  private long[] words = new long[0];
+
+  // marks [fromDay, toDay)
+  synchronized void set(long fromDay, long toDay) {
+    if (fromDay >= toDay) {
+      return;
+    }
+    ensureCapacity(fromDay >> 6, (toDay - 1) >> 6);
+    for (long day = fromDay; day < toDay;) {
+      long word = day >> 6;
+      int fromBit = (int) (day & 63);
+      int toBit = (int) Math.min(64, toDay - (word << 6)); // exclusive
+      words[(int) (word - firstWord)] |= mask(fromBit, toBit);
+      day = (word + 1) << 6;
+    }
+  }
+
+  // unmarks [fromDay, toDay)
+  synchronized void clear(long fromDay, long toDay) {
+    for (long day = fromDay; day < toDay;) {
+      long word = day >> 6;
+      int fromBit = (int) (day & 63);
+      int toBit = (int) Math.min(64, toDay - (word << 6));
+      int i = (int) (word - firstWord);
+      if (i >= 0 && i < words.length) {
+        words[i] &= ~mask(fromBit, toBit);
+      }
+      day = (word + 1) << 6;
+    }
+  }
+
+  // ORs the days [fromDay, fromDay + 64 * into.length) into `into`, re-aligned so that
+  // bit 0 of into[0] is fromDay; days past the end of the window must be masked by the caller
+  synchronized void orInto(long fromDay, long[] into) {
+    for (int j = 0; j < into.length; j++) {
+      into[j] |= wordStartingAt(fromDay + ((long) j << 6));
+    }
+  }
+
+  // the 64 days starting at `day`, whatever its alignment: at most two word reads
+  private long wordStartingAt(long day) {
+    long word = day >> 6;
+    int offset = (int) (day & 63);
+    long low = wordAt(word);
+    if (offset == 0) {
+      return low;
+    }
+    return (low >>> offset) | (wordAt(word + 1) << (64 - offset));
+  }
+
+  private long wordAt(long word) {
+    long i = word - firstWord;
+    return i >= 0 && i < words.length ? words[(int) i] : 0L;
+  }
+
+  private void ensureCapacity(long fromWord, long toWord) {
+    if (words.length == 0) {
+      firstWord = fromWord;
+      words = new long[(int) (toWord - fromWord + 1)];
+      return;
+    }
+    long newFirst = Math.min(firstWord, fromWord);
+    long newLast = Math.max(firstWord + words.length - 1, toWord);
+    if (newFirst == firstWord && newLast == firstWord + words.length - 1) {
+      return;
+    }
+    var grown = new long[(int) (newLast - newFirst + 1)];
+    System.arraycopy(words, 0, grown, (int) (firstWord - newFirst), words.length);
+    firstWord = newFirst;
+    words = grown;
+  }
+
+  // bits [fromBit, toBit) of a word
+  private static long mask(int fromBit, int toBit) {
+    long upper = toBit == 64 ? -1L : (1L << toBit) - 1;
+    return upper & (-1L << fromBit);
+  }
+}
@@ -0,0 +1,46 @@
+package generatik.backend.services;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import generatik.backend.events.OutboxMessage;
+import generatik.backend.events.OutboxSink;
+import tools.jackson.databind.json.JsonMapper;
+
+// appends the events to outbox.file as ndjson, for batch jobs that read a file
+// the batch is fsynced before deliver returns, the rows are only deleted after that
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+public class FileOutboxSink implements OutboxSink {
+  private final Path file;
+  private final JsonMapper jsonMapper;
+
+  public FileOutboxSink(@Value("${outbox.file}") Path file, JsonMapper jsonMapper) {
+    this.file = file;
+    this.jsonMapper = jsonMapper;
+  }
+
+  @Override
+  public void deliver(List<OutboxMessage> messages) throws IOException {
+    if (file.getParent() != null) {
+      Files.createDirectories(file.getParent());
+    }
+    try (var fileOut = new FileOutputStream(file.toFile(), true);
+        var out = new BufferedOutputStream(fileOut)) {
+      for (var message : messages) {
+        out.write(jsonMapper.writeValueAsBytes(message));
+        out.write('\n');
+      }
+      out.flush();
+      fileOut.getFD().sync();
+    }
+  }
+}
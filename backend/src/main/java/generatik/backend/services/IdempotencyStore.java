@@ -0,0 +1,168 @@
+package generatik.backend.services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import generatik.backend.dtos.BookingDTO;
+import generatik.backend.repos.IdempotencyKeyRepository;
+import generatik.backend.repos.IdempotencyKeyRepository.StoredResponse;
+import tools.jackson.databind.json.JsonMapper;
+
+// Idempotency-Key support for booking creation: the first request with a key runs, its
+// booking is remembered (bounded in memory, and in idempotency_keys with the booking itself),
+// and every retry with the same key and body gets that booking back without running again
+// a retry arriving while the first one is still running waits for it instead of racing it
+// (on another instance it races it, loses on the unique constraints and replays it then)
+// failed requests are not remembered, a retry runs them again
+@Component
+public class IdempotencyStore {
+  private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+  public record Result(BookingDTO booking, boolean replayed) {
+  }
+
+  private final IdempotencyKeyRepository repository;
+  private final JsonMapper jsonMapper;
+  private final Duration ttl;
+  private final Duration waitTimeout;
+  private final Cache<String, StoredResponse> completed;
+  private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+  public IdempotencyStore(IdempotencyKeyRepository repository, JsonMapper jsonMapper,
+      @Value("${idempotency.max-size}") long maxSize,
+      @Value("${idempotency.ttl}") Duration ttl,
+      @Value("${idempotency.wait-timeout}") Duration waitTimeout) {
+    this.repository = repository;
+    this.jsonMapper = jsonMapper;
+    this.ttl = ttl;
+    this.waitTimeout = waitTimeout;
+    this.completed = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .build();
+  }
+
+  // runs action (given the request hash, to store next to the booking) once per key
+  public Result once(String key, Object request, Function<String, BookingDTO> action) {
+    var requestHash = hash(request);
+    var known = completed.getIfPresent(key);
+    if (known != null) {
+      return replay(key, requestHash, known);
+    }
+
+    var mine = new CompletableFuture<StoredResponse>();
+    var running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      logger.debug("Idempotency-Key {} is in flight, waiting for it", key);
+      return replay(key, requestHash, await(key, running));
+    }
+    try {
+      // finished between the two lookups above, or stored before a restart / by another instance
+      var stored = completed.getIfPresent(key);
+      if (stored == null) {
+        stored = repository.find(key, Instant.now().minus(ttl)).orElse(null);
+      }
+      if (stored != null) {
+        completed.put(key, stored);
+        mine.complete(stored);
+        return replay(key, requestHash, stored);
+      }
+
+      var created = new StoredResponse(requestHash, action.apply(requestHash));
+      completed.put(key, created);
+      mine.complete(created);
+      return new Result(created.booking(), false);
+    } catch (ResponseStatusException ex) {
+      var stored = ex.getStatusCode() == HttpStatus.CONFLICT ? storedElsewhere(key) : null;
+      if (stored == null) {
+        mine.completeExceptionally(ex);
+        throw ex;
+      }
+      completed.put(key, stored);
+      mine.complete(stored);
+      return replay(key, requestHash, stored);
+    } catch (RuntimeException ex) {
+      mine.completeExceptionally(ex); // the waiters get the same answer
+      throw ex;
+    } finally {
+      inFlight.remove(key, mine);
+    }
+  }
+
+  // a 409 can be a retry that reached another instance while the first request was running
+  // there: its insert hit the unique constraints (the booking's, or idempotency_keys_pkey), and
+  // postgres only reports that once the other transaction committed, so its booking is stored
+  // under the key by now and is what the client gets back
+  private StoredResponse storedElsewhere(String key) {
+    var stored = repository.find(key, Instant.now().minus(ttl)).orElse(null);
+    if (stored != null) {
+      logger.debug("Idempotency-Key {} was stored by a concurrent request, replaying it", key);
+    }
+    return stored;
+  }
+
+  @Scheduled(fixedDelayString = "${idempotency.cleanup-interval}")
+  public void deleteExpired() {
+    int deleted = repository.deleteOlderThan(Instant.now().minus(ttl));
+    if (deleted > 0) {
+      logger.info("Deleted {} expired idempotency key(s)", deleted);
+    }
+  }
+
+  private StoredResponse await(String key, CompletableFuture<StoredResponse> running) {
+    try {
+      return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } catch (TimeoutException ex) {
+      throw new ResponseStatusException(
+          HttpStatus.CONFLICT,
+          "A request with Idempotency-Key " + key + " is still being processed");
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting", ex);
+    }
+  }
+
+  private static Result replay(String key, String requestHash, StoredResponse stored) {
+    if (!stored.requestHash().equals(requestHash)) { // edge case, a key reused for another booking
+      throw new ResponseStatusException(
+          HttpStatus.UNPROCESSABLE_CONTENT,
+          "Idempotency-Key " + key + " was already used with a different request");
+    }
+    return new Result(stored.booking(), true);
+  }
+
+  // sha-256 of the request as json, records serialize their fields in a fixed order
+  private String hash(Object request) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256").digest(jsonMapper.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest);
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex); // every jvm has sha-256
+    }
+  }
+}
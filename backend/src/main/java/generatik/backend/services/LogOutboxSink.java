@@ -0,0 +1,26 @@
+package generatik.backend.services;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import generatik.backend.events.OutboxMessage;
+import generatik.backend.events.OutboxSink;
+
+// the default sink: one log line per event, a stand-in until a real consumer is wired in
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+  private static final Logger logger = LoggerFactory.getLogger(LogOutboxSink.class);
+
+  @Override
+  public void deliver(List<OutboxMessage> messages) {
+    for (var message : messages) {
+      logger.info("Booking event {}: {} booking {} {}", message.id(), message.type(), message.bookingId(),
+          message.booking());
+    }
+  }
+}
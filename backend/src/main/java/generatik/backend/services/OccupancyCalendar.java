@@ -0,0 +1,93 @@
+package generatik.backend.services;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import generatik.backend.ReplicaRouting;
+import generatik.backend.dtos.BookedRangeDTO;
+import generatik.backend.events.BookingEvent;
+import generatik.backend.repos.BookingRepository;
+
+// per ad space bitmap of the days held by a Pending / Approved booking, so calendars
+// are answered from memory instead of from booking rows
+// kept up to date from the BookingEvents published by BookingService
+@Component
+public class OccupancyCalendar {
+  private static final Logger logger = LoggerFactory.getLogger(OccupancyCalendar.class);
+  static final int HISTORY_DAYS = 366; // how far back the calendar is loaded at startup
+
+  private final BookingRepository bookingRepository;
+  private final ConcurrentHashMap<Long, DayBitmap> byAdSpace = new ConcurrentHashMap<>();
+
+  public OccupancyCalendar(BookingRepository bookingRepository) {
+    this.bookingRepository = bookingRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void rebuild() {
+    // from the primary, a lagging replica would leave the calendar missing the latest bookings
+    ReplicaRouting.onPrimary(() -> {
+      byAdSpace.clear();
+      try (var ranges = bookingRepository.streamBookedRanges(AvailabilityIndex.BLOCKING,
+          LocalDate.now().minusDays(HISTORY_DAYS))) {
+        ranges.forEach(this::mark);
+      }
+      logger.info("Occupancy calendar built for {} ad space(s)", byAdSpace.size());
+    });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBookingEvent(BookingEvent event) {
+    var booking = event.booking();
+    if (booking.startDate() == null || booking.endDate() == null) {
+      return;
+    }
+    switch (event.type()) {
+      case Created ->
+        mark(new BookedRangeDTO(booking.id(), booking.adSpaceId(), booking.startDate(), booking.endDate()));
+      case Rejected -> {
+        var bitmap = byAdSpace.get(booking.adSpaceId());
+        if (bitmap != null) {
+          bitmap.clear(booking.startDate().toEpochDay(), booking.endDate().toEpochDay());
+        }
+      }
+      case Approved -> {
+        // pending days were already taken, nothing changes
+      }
+    }
+  }
+
+  // days of [from, to) on which at least one of the ad spaces is taken, bit i = from + i
+  // a day is free for all of them when its bit is 0, so a multi-space question costs
+  // (days / 64) ORs per space
+  public long[] bookedDays(Collection<Long> adSpaceIds, LocalDate from, LocalDate to) {
+    long fromDay = from.toEpochDay();
+    int days = (int) (to.toEpochDay() - fromDay);
+    var result = new long[(days + 63) >> 6];
+    for (var id : adSpaceIds) {
+      var bitmap = byAdSpace.get(id);
+      if (bitmap != null) {
+        bitmap.orInto(fromDay, result);
+      }
+    }
+    if ((days & 63) != 0) { // drop the days after `to` picked up by the last word
+      result[result.length - 1] &= (1L << (days & 63)) - 1;
+    }
+    return result;
+  }
+
+  private void mark(BookedRangeDTO range) {
+    byAdSpace.computeIfAbsent(range.adSpaceId(), id -> new DayBitmap())
+        .set(range.startDate().toEpochDay(), range.endDate().toEpochDay());
+  }
+}
@@ -0,0 +1,81 @@
+package generatik.backend.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import generatik.backend.events.OutboxMessage;
+import generatik.backend.events.OutboxSink;
+import generatik.backend.repos.OutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// moves booking_outbox to the OutboxSink in the background, requests only pay for the insert
+// a batch is locked, delivered and deleted in one transaction: when the sink fails (or the
+// node dies) the rows are unlocked again and delivered by the next run, here or on another
+// node, so a message can arrive twice but is never lost
+@Component
+public class OutboxRelay {
+  private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+  static final String DELIVERED = "booking.outbox.delivered";
+  static final String FAILURES = "booking.outbox.failures";
+
+  private final OutboxRepository repository;
+  private final OutboxSink sink;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+  private final Counter delivered;
+  private final Counter failures;
+
+  public OutboxRelay(OutboxRepository repository, OutboxSink sink, PlatformTransactionManager transactionManager,
+      MeterRegistry registry, @Value("${outbox.batch-size}") int batchSize) {
+    this.repository = repository;
+    this.sink = sink;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.batchSize = batchSize;
+    this.delivered = Counter.builder(DELIVERED)
+        .description("Booking events handed over to the outbox sink")
+        .register(registry);
+    this.failures = Counter.builder(FAILURES)
+        .description("Outbox batches the sink failed to take, retried on the next run")
+        .register(registry);
+  }
+
+  // full batches are followed by the next one right away, so a backlog drains at sink speed
+  @Scheduled(fixedDelayString = "${outbox.relay-interval}")
+  public void relay() {
+    try {
+      while (relayBatch() == batchSize) {
+        // keep draining
+      }
+    } catch (RuntimeException ex) {
+      failures.increment();
+      logger.warn("Outbox delivery failed, retrying on the next run", ex);
+    }
+  }
+
+  // the number of messages delivered
+  int relayBatch() {
+    return transactionTemplate.execute(status -> {
+      var messages = repository.lockOldest(batchSize);
+      if (messages.isEmpty()) {
+        return 0;
+      }
+      try {
+        sink.deliver(messages);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex); // rolls back, the rows stay
+      }
+      repository.delete(messages.stream().map(OutboxMessage::id).toList());
+      delivered.increment(messages.size());
+      return messages.size();
+    });
+  }
+}
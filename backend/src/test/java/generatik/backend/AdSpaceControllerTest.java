@@ -4,25 +4,62 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 //with the help of static import, we can access the static members of a class directly without class name or any object
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDate;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.test.web.servlet.MockMvc;
 
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import com.jayway.jsonpath.JsonPath;
+
+import generatik.backend.entities.adspace.AdSpace;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.AvailabilityStatus;
+import generatik.backend.entities.adspace.City;
+import generatik.backend.repos.AdSpaceRepository;
+import generatik.backend.services.CatalogueVersion;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
 class AdSpaceControllerTest {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private CatalogueVersion catalogueVersion;
+
+  @Autowired
+  private AdSpaceRepository adSpaceRepository;
+
+  @Autowired
+  private CacheManager cacheManager;
+
   // GET /api/v1/ad-spaces -> 200 + list not empty
   @ParameterizedTest
   @ValueSource(strings = {
@@ -143,4 +180,281 @@ class AdSpaceControllerTest {
         .accept(MediaType.APPLICATION_JSON))
         .andExpect(status().isNotFound());
   }
+
+  // GET /api/v1/ad-spaces?limit=&after= -> keyset pages
+  @Test
+  void testsAdSpacePagination() throws Exception {
+    // a full page exposes the cursor for the next one
+    var firstPage = mockMvc.perform(get("/api/v1/ad-spaces")
+        .param("limit", "2")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(header().exists("X-Next-Cursor"))
+        .andReturn();
+    String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+    // the next page starts strictly after the cursor
+    mockMvc.perform(get("/api/v1/ad-spaces")
+        .param("limit", "2")
+        .param("after", cursor)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(greaterThan(Integer.parseInt(cursor))));
+
+    // a page that is not full is the last one
+    mockMvc.perform(get("/api/v1/ad-spaces")
+        .param("limit", "500")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+    // edge case: invalid page size -> 400
+    mockMvc.perform(get("/api/v1/ad-spaces")
+        .param("limit", "0")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // GET /api/v1/ad-spaces/search -> only spaces free for the whole period
+  @Test
+  void testsAdSpaceSearchAvailable() throws Exception {
+    // seed: "Times Square" (id 1) is booked from +3 to +10, "Times Square 2" (id 5) is free
+    mockMvc.perform(get("/api/v1/ad-spaces/search")
+        .param("city", "Bucuresti")
+        .param("type", "Billboard")
+        .param("from", LocalDate.now().plusDays(5).toString())
+        .param("to", LocalDate.now().plusDays(7).toString())
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].name").value("Times Square 2"))
+        .andExpect(jsonPath("$[0].totalPrice").value(600)); // 2 days * 300
+
+    // the day the booking ends is free again (end date is exclusive)
+    mockMvc.perform(get("/api/v1/ad-spaces/search")
+        .param("city", "Bucuresti")
+        .param("type", "Billboard")
+        .param("from", LocalDate.now().plusDays(10).toString())
+        .param("to", LocalDate.now().plusDays(11).toString())
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2));
+
+    // edge cases: empty period and missing filter -> 400
+    mockMvc.perform(get("/api/v1/ad-spaces/search")
+        .param("city", "Bucuresti")
+        .param("type", "Billboard")
+        .param("from", LocalDate.now().plusDays(7).toString())
+        .param("to", LocalDate.now().plusDays(7).toString())
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+
+    mockMvc.perform(get("/api/v1/ad-spaces/search")
+        .param("city", "Bucuresti")
+        .param("from", LocalDate.now().plusDays(5).toString())
+        .param("to", LocalDate.now().plusDays(7).toString())
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // GET /api/v1/ad-spaces/{id}/calendar and /calendar?ids= -> one char per day
+  @Test
+  void testsAdSpaceCalendar() throws Exception {
+    String from = LocalDate.now().toString();
+    String to = LocalDate.now().plusDays(12).toString();
+
+    // seed: "Times Square" (id 1) is booked from +3 to +10 (end exclusive)
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}/calendar", 1L)
+        .param("from", from)
+        .param("to", to)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.booked").value("000111111100"));
+
+    // combined with a free space: still taken on the same days
+    mockMvc.perform(get("/api/v1/ad-spaces/calendar")
+        .param("ids", "1,5")
+        .param("from", from)
+        .param("to", to)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.adSpaceIds.length()").value(2))
+        .andExpect(jsonPath("$.booked").value("000111111100"));
+
+    // default period is a year
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}/calendar", 5L)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.booked").value("0".repeat(365)));
+
+    // edge cases: unknown ad space -> 404, empty period -> 400
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}/calendar", 99999L)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotFound());
+
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}/calendar", 1L)
+        .param("from", to)
+        .param("to", from)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // reads are cached, an update replaces the cached value
+  @Test
+  void testsAdSpaceCache() throws Exception {
+    long id = 4L;
+    long version = catalogueVersion.current();
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/api/v1/admin/caches").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.name == 'adSpaces')].hits").value(hasItem(greaterThan(0))));
+
+    String updateBody = """
+        {
+          "id": 4,
+          "name": "Transit ad",
+          "pricePerDay": 150,
+          "city": "Iasi",
+          "address": "Str. Roman Musat",
+          "availabilityStatus": "Available",
+          "type": "TransitAd"
+        }
+        """;
+    mockMvc.perform(put("/api/v1/ad-spaces/{id}", id)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(updateBody)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    // no stale value, neither by id nor in the listing
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.pricePerDay").value(150));
+    mockMvc.perform(get("/api/v1/ad-spaces").param("type", "TransitAd").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.id == 4)].pricePerDay").value(hasItem(150)));
+    // the update doesn't empty the cache, the old version's entry is only left to expire
+    assertNotNull(cacheManager.getCache(CacheConfig.AD_SPACES).get(new SimpleKey(version, id)));
+  }
+
+  // catalogue reads carry an ETag, revalidating an unchanged one is a 304 with no sql
+  @Test
+  void testsAdSpaceConditionalGet() throws Exception {
+    long id = 2L;
+    String etag = mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andExpect(header().string("Cache-Control", containsString("no-cache")))
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string("ETag", etag))
+        .andExpect(content().string(""))
+        .andExpect(SqlStatements.atMost(0));
+    // not even a cache lookup: evicted (ttl, size, another instance) it is still no sql
+    cacheManager.getCache(CacheConfig.AD_SPACES).clear();
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified())
+        .andExpect(SqlStatements.atMost(0));
+    mockMvc.perform(get("/api/v1/ad-spaces").header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified());
+
+    String current = mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andReturn().getResponse().getContentAsString();
+    mockMvc.perform(put("/api/v1/ad-spaces/{id}", id)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(current)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    // any update moves the version, the old tag no longer matches
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", not(etag)));
+  }
+
+  // the list reloaded after a delete is revalidated, the old tag gets the list without the ad space
+  @Test
+  void testsDeleteChangesCatalogueTag() throws Exception {
+    long id = adSpaceRepository.save(new AdSpace("Deleted Soon", AdSpaceType.Billboard, 100, City.Cluj,
+        "Strada Lunga 1", AvailabilityStatus.Available)).getId();
+    // there is no create endpoint to move the version, a page cached before the insert would hide it
+    jdbcTemplate.update("update catalogue_version set version = version + 1");
+    catalogueVersion.refresh();
+    String etag = mockMvc.perform(get("/api/v1/ad-spaces").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[?(@.id == %d)]".formatted(id)).exists())
+        .andReturn().getResponse().getHeader("ETag");
+
+    String byIdTag = mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(delete("/api/v1/ad-spaces/{id}", id))
+        .andExpect(status().isNoContent());
+
+    mockMvc.perform(get("/api/v1/ad-spaces").header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("ETag", not(etag)))
+        .andExpect(jsonPath("$[?(@.id == %d)]".formatted(id)).doesNotExist());
+    // the tag it was served with no longer matches, the revalidation finds it gone
+    mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).header("If-None-Match", byIdTag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotFound());
+  }
+
+  // a matching tag never hides a bad request
+  @Test
+  void testsConditionalGetStillValidates() throws Exception {
+    String etag = mockMvc.perform(get("/api/v1/ad-spaces").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+
+    mockMvc.perform(get("/api/v1/ad-spaces").param("limit", "0").header("If-None-Match", etag)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // an update made through another instance: its version reaches this one with the next refresh
+  @Test
+  void testsCatalogueVersionOfAnotherInstance() throws Exception {
+    long id = 5L;
+    String etag = mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader("ETag");
+    int price = JsonPath.read(mockMvc.perform(get("/api/v1/ad-spaces/{id}", id))
+        .andReturn().getResponse().getContentAsString(), "$.pricePerDay");
+
+    otherInstanceSetsPrice(id, price + 1);
+    try {
+      mockMvc.perform(get("/api/v1/ad-spaces/{id}", id).header("If-None-Match", etag)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string("ETag", not(etag)))
+          .andExpect(jsonPath("$.pricePerDay").value(price + 1));
+      mockMvc.perform(get("/api/v1/ad-spaces").header("If-None-Match", etag)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+    } finally {
+      otherInstanceSetsPrice(id, price);
+    }
+  }
+
+  // what updateAdSpace commits on another instance, then this one's next version refresh
+  private void otherInstanceSetsPrice(long id, int price) {
+    jdbcTemplate.update("update ad_spaces set price_per_day = ? where id = ?", price, id);
+    jdbcTemplate.update("update catalogue_version set version = version + 1");
+    catalogueVersion.refresh();
+  }
 }
@@ -0,0 +1,190 @@
+package generatik.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.jayway.jsonpath.JsonPath;
+
+import generatik.backend.repos.BookingRepository;
+import generatik.backend.services.AvailabilityIndex;
+import generatik.backend.services.OccupancyCalendar;
+
+// the aggregates move with approve / reject; other tests approve bookings too, so every
+// check compares before and after instead of absolute totals
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AnalyticsControllerTest {
+  static final long AD_SPACE = 6;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private AvailabilityIndex availabilityIndex;
+
+  @Autowired
+  private OccupancyCalendar occupancyCalendar;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Test
+  void testsApproveAndRejectMoveTheTotals() throws Exception {
+    var adSpace = mockMvc.perform(get("/api/v1/ad-spaces/" + AD_SPACE))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    long price = ((Number) JsonPath.read(adSpace, "$.pricePerDay")).longValue();
+    String city = JsonPath.read(adSpace, "$.city");
+    String type = JsonPath.read(adSpace, "$.type");
+
+    // approved: the last 2 days of `first` and the first 2 of `second`; rejected: 3 days of `second`
+    var first = YearMonth.now().plusMonths(16);
+    var second = first.plusMonths(1);
+    var period = "?from=" + first + "&to=" + second;
+    var approvedStart = first.atEndOfMonth().minusDays(1);
+    var rejectedStart = second.atDay(10);
+
+    var monthsBefore = fetch("/api/v1/analytics/revenue/months" + period);
+    var citiesBefore = fetch("/api/v1/analytics/revenue/cities" + period);
+    var typesBefore = fetch("/api/v1/analytics/revenue/types" + period);
+    var occupancyBefore = fetch("/api/v1/analytics/occupancy" + period);
+
+    long approved = createBooking("Stats Corp", "stats@acme.com", approvedStart, approvedStart.plusDays(4));
+    long rejected = createBooking("Stats Lost", "stats.lost@acme.com", rejectedStart, rejectedStart.plusDays(3));
+    try {
+      mockMvc.perform(patch("/api/v1/booking-requests/" + approved + "/approve"))
+          .andExpect(status().isOk());
+      mockMvc.perform(patch("/api/v1/booking-requests/" + rejected + "/reject"))
+          .andExpect(status().isOk());
+
+      var months = fetch("/api/v1/analytics/revenue/months" + period);
+      // counted in the month it starts, days and revenue split over both
+      assertEquals(1, delta(monthsBefore, months, first.toString(), "approvedBookings"));
+      assertEquals(2, delta(monthsBefore, months, first.toString(), "bookedDays"));
+      assertEquals(2 * price, delta(monthsBefore, months, first.toString(), "revenue"));
+      assertEquals(0, delta(monthsBefore, months, second.toString(), "approvedBookings"));
+      assertEquals(2, delta(monthsBefore, months, second.toString(), "bookedDays"));
+      assertEquals(2 * price, delta(monthsBefore, months, second.toString(), "revenue"));
+      assertEquals(1, delta(monthsBefore, months, second.toString(), "rejectedBookings"));
+      assertEquals(3 * price, delta(monthsBefore, months, second.toString(), "rejectedRevenue"));
+
+      var cities = fetch("/api/v1/analytics/revenue/cities" + period);
+      assertEquals(1, delta(citiesBefore, cities, city, "approvedBookings"));
+      assertEquals(4 * price, delta(citiesBefore, cities, city, "revenue"));
+      assertEquals(1, delta(citiesBefore, cities, city, "rejectedBookings"));
+
+      var types = fetch("/api/v1/analytics/revenue/types" + period);
+      assertEquals(4 * price, delta(typesBefore, types, type, "revenue"));
+      assertEquals(3 * price, delta(typesBefore, types, type, "rejectedRevenue"));
+
+      // only approved days occupy
+      var occupancy = fetch("/api/v1/analytics/occupancy" + period);
+      var filter = "$[?(@.city == '" + city + "' && @.type == '" + type + "')].";
+      assertEquals(4, sum(occupancy, filter + "bookedDays") - sum(occupancyBefore, filter + "bookedDays"));
+      long adSpaces = sum(occupancy, filter + "adSpaces");
+      assertEquals(adSpaces * (first.lengthOfMonth() + second.lengthOfMonth()), sum(occupancy, filter + "availableDays"));
+    } finally {
+      bookingRepository.deleteById(approved);
+      bookingRepository.deleteById(rejected);
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // a cost that does not divide by the days: the month slices still add up to it
+  @Test
+  void testsSplitRevenueAddsUpToTheCost() throws Exception {
+    var adSpace = mockMvc.perform(get("/api/v1/ad-spaces/" + AD_SPACE))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    String city = JsonPath.read(adSpace, "$.city");
+
+    // 1 day in `first`, 2 in `second`, 100 over 3 days
+    var first = YearMonth.now().plusMonths(20);
+    var second = first.plusMonths(1);
+    var period = "?from=" + first + "&to=" + second;
+    var start = first.atEndOfMonth();
+
+    var monthsBefore = fetch("/api/v1/analytics/revenue/months" + period);
+    var citiesBefore = fetch("/api/v1/analytics/revenue/cities" + period);
+
+    long id = createBooking("Stats Split", "stats.split@acme.com", start, start.plusDays(3));
+    try {
+      jdbcTemplate.update("update bookings set total_cost = 100 where id = ?", id);
+      mockMvc.perform(patch("/api/v1/booking-requests/" + id + "/approve"))
+          .andExpect(status().isOk());
+
+      var months = fetch("/api/v1/analytics/revenue/months" + period);
+      assertEquals(33, delta(monthsBefore, months, first.toString(), "revenue"));
+      assertEquals(67, delta(monthsBefore, months, second.toString(), "revenue"));
+      assertEquals(100, delta(citiesBefore, fetch("/api/v1/analytics/revenue/cities" + period), city, "revenue"));
+    } finally {
+      bookingRepository.deleteById(id);
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  @Test
+  void testsInvalidPeriodsAreRefused() throws Exception {
+    mockMvc.perform(get("/api/v1/analytics/revenue/cities?from=2026-05&to=2026-04"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/analytics/occupancy?from=2000-01&to=2020-01"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/api/v1/analytics/revenue/months?from=2026-13"))
+        .andExpect(status().isBadRequest());
+    // defaults to the last 12 months
+    mockMvc.perform(get("/api/v1/analytics/revenue/types"))
+        .andExpect(status().isOk());
+  }
+
+  private String fetch(String uri) throws Exception {
+    return mockMvc.perform(get(uri)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(SqlStatements.atMost(1))
+        .andReturn().getResponse().getContentAsString();
+  }
+
+  private static long delta(String before, String after, String group, String field) {
+    var path = "$[?(@.group == '" + group + "')]." + field;
+    return sum(after, path) - sum(before, path);
+  }
+
+  // a filter matches 0 or 1 rows, 0 when the group has no row yet
+  private static long sum(String json, String path) {
+    List<Number> values = JsonPath.read(json, path);
+    return values.stream().mapToLong(Number::longValue).sum();
+  }
+
+  private long createBooking(String name, String email, LocalDate start, LocalDate end) throws Exception {
+    var body = mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("""
+            {"adSpaceId": %d, "advertiserName": "%s", "advertiserEmail": "%s", "startDate": "%s", "endDate": "%s"}"""
+            .formatted(AD_SPACE, name, email, start, end)))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return ((Number) JsonPath.read(body, "$.id")).longValue();
+  }
+}
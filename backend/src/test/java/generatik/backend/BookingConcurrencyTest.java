@@ -0,0 +1,276 @@
+package generatik.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.jayway.jsonpath.JsonPath;
+
+import generatik.backend.dtos.BookingCreationDTO;
+import generatik.backend.entities.booking.Booking;
+import generatik.backend.entities.booking.Status;
+import generatik.backend.repos.AdSpaceRepository;
+import generatik.backend.repos.BookingRepository;
+import generatik.backend.repos.IdempotencyKeyRepository;
+import generatik.backend.services.AvailabilityIndex;
+import generatik.backend.services.BookingService;
+import generatik.backend.services.OccupancyCalendar;
+import tools.jackson.databind.json.JsonMapper;
+
+// many moderators approving / rejecting the same bookings at the same time:
+// every booking must change exactly once, every other call must lose with a 409 (or a
+// 400 when it only arrived after the change was committed)
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class BookingConcurrencyTest {
+  static final int BOOKINGS = 250;
+  static final int CALLS_PER_BOOKING = 8; // half approve, half reject
+  static final int THREADS = 32;
+  static final long[] AD_SPACES = { 1, 2, 4, 5, 6, 7, 8 }; // seeded ones (3 gets deleted by another test)
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private BookingService bookingService;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private AvailabilityIndex availabilityIndex;
+
+  @Autowired
+  private OccupancyCalendar occupancyCalendar;
+
+  @Autowired
+  private AdSpaceRepository adSpaceRepository;
+
+  @Autowired
+  private IdempotencyKeyRepository idempotencyKeyRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private JsonMapper jsonMapper;
+
+  @Test
+  void testsEachBookingTransitionsExactlyOnce() throws Exception {
+    var items = new ArrayList<BookingCreationDTO>();
+    for (int i = 0; i < BOOKINGS; i++) {
+      // far in the future, two days each, so nothing overlaps the other tests
+      var start = LocalDate.now().plusDays(1000 + 2L * (i / AD_SPACES.length));
+      items.add(new BookingCreationDTO(AD_SPACES[i % AD_SPACES.length], "Race " + i, "race" + i + "@acme.com",
+          start, start.plusDays(2)));
+    }
+    var ids = bookingService.createBookings(items).stream()
+        .map(result -> result.booking().id())
+        .toList();
+
+    try {
+      // the calls of one booking are submitted back to back, so they really run at the same time
+      var random = new Random(42);
+      var calls = new ArrayList<Long>();
+      for (var id : ids) {
+        var group = new ArrayList<Long>();
+        for (int k = 0; k < CALLS_PER_BOOKING; k++) {
+          group.add(k % 2 == 0 ? id : -id); // negative = reject
+        }
+        Collections.shuffle(group, random);
+        calls.addAll(group);
+      }
+
+      Map<Long, Status> winners = new ConcurrentHashMap<>();
+      var wins = new AtomicInteger();
+      var conflicts = new AtomicInteger();
+      var notPending = new AtomicInteger();
+
+      long begin = System.nanoTime();
+      try (var pool = Executors.newFixedThreadPool(THREADS)) {
+        var futures = new ArrayList<Future<?>>();
+        for (var call : calls) {
+          futures.add(pool.submit(() -> {
+            long id = Math.abs(call);
+            var action = call > 0 ? "approve" : "reject";
+            int status = mockMvc.perform(patch("/api/v1/booking-requests/{id}/" + action, id))
+                .andReturn().getResponse().getStatus();
+            switch (status) {
+              case 200 -> {
+                wins.incrementAndGet();
+                var previous = winners.put(id, call > 0 ? Status.Approved : Status.Rejected);
+                assertEquals(null, previous, "booking " + id + " changed twice");
+              }
+              case 409 -> conflicts.incrementAndGet();
+              case 400 -> notPending.incrementAndGet();
+              default -> throw new AssertionError("unexpected status " + status + " for booking " + id);
+            }
+            return null;
+          }));
+        }
+        for (var future : futures) {
+          future.get();
+        }
+      }
+      long elapsed = System.nanoTime() - begin;
+
+      System.out.printf("%n%d transition calls on %d bookings with %d threads: %d ms (%.0f calls/s), "
+          + "%d changed, %d conflicts (409), %d not pending (400)%n", calls.size(), BOOKINGS, THREADS,
+          elapsed / 1_000_000, calls.size() * 1e9 / elapsed, wins.get(), conflicts.get(), notPending.get());
+
+      assertEquals(BOOKINGS, wins.get());
+      assertEquals(calls.size() - BOOKINGS, conflicts.get() + notPending.get());
+      // what is stored is what the single winner of each booking asked for
+      for (var booking : bookingRepository.findAllById(ids)) {
+        assertEquals(winners.get(booking.getId()), booking.getStatus());
+      }
+      assertTrue(winners.keySet().containsAll(ids));
+    } finally {
+      // leave the shared test data as the other tests expect it
+      bookingRepository.deleteAllById(ids);
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // a client retrying a POST while the first one is still running: all copies wait for the
+  // first and get its booking, only one booking is created
+  @Test
+  void testsConcurrentRetriesWithOneIdempotencyKeyCreateOneBooking() throws Exception {
+    var key = UUID.randomUUID().toString();
+    var start = LocalDate.now().plusDays(900);
+    var body = """
+        {"adSpaceId": 6, "advertiserName": "Retry Corp", "advertiserEmail": "retry@acme.com",
+         "startDate": "%s", "endDate": "%s"}
+        """.formatted(start, start.plusDays(2));
+
+    var ids = ConcurrentHashMap.<Long>newKeySet();
+    var replays = new AtomicInteger();
+    try (var pool = Executors.newFixedThreadPool(CALLS_PER_BOOKING)) {
+      var futures = new ArrayList<Future<?>>();
+      for (int i = 0; i < CALLS_PER_BOOKING; i++) {
+        futures.add(pool.submit(() -> {
+          var response = mockMvc.perform(post("/api/v1/booking-requests")
+              .header("Idempotency-Key", key)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(body))
+              .andReturn().getResponse();
+          assertEquals(200, response.getStatus(), response.getContentAsString());
+          ids.add(((Number) JsonPath.read(response.getContentAsString(), "$.id")).longValue());
+          if ("true".equals(response.getHeader("Idempotent-Replayed"))) {
+            replays.incrementAndGet();
+          }
+          return null;
+        }));
+      }
+      for (var future : futures) {
+        future.get();
+      }
+    } finally {
+      bookingRepository.deleteAllById(ids);
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+
+    assertEquals(1, ids.size());
+    assertEquals(CALLS_PER_BOOKING - 1, replays.get());
+  }
+
+  // a retry that reaches another instance while the first request is still being committed
+  // there: it blocks on the unique constraints until that transaction commits, then gets the
+  // booking it created instead of a 409
+  @Test
+  void testsRetryOnAnotherInstanceReplaysTheFirstBooking() throws Exception {
+    var key = UUID.randomUUID().toString();
+    var start = LocalDate.now().plusDays(950);
+    var request = new BookingCreationDTO(6L, "Elsewhere Corp", "elsewhere@acme.com", start, start.plusDays(2));
+    // the hash IdempotencyStore keeps next to the booking
+    var requestHash = HexFormat.of().formatHex(
+        MessageDigest.getInstance("SHA-256").digest(jsonMapper.writeValueAsBytes(request)));
+
+    var written = new CountDownLatch(1);
+    var commit = new CountDownLatch(1);
+    Long firstId = null;
+    try (var pool = Executors.newFixedThreadPool(2)) {
+      // the first request, on the other instance: booking and key written, not committed yet
+      var first = pool.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+        var booking = new Booking(request.advertiserName(), request.advertiserEmail(), request.startDate(),
+            request.endDate(), 0);
+        booking.setAdSpace(adSpaceRepository.findById(request.adSpaceId()).orElseThrow());
+        var dto = bookingRepository.findDTOById(bookingRepository.saveAndFlush(booking).getId()).orElseThrow();
+        idempotencyKeyRepository.insert(key, requestHash, dto);
+        written.countDown();
+        try {
+          assertTrue(commit.await(30, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+          throw new IllegalStateException(ex);
+        }
+        return dto;
+      }));
+      assertTrue(written.await(10, TimeUnit.SECONDS));
+
+      var retry = pool.submit(() -> mockMvc.perform(post("/api/v1/booking-requests")
+          .header("Idempotency-Key", key)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(jsonMapper.writeValueAsString(request)))
+          .andReturn().getResponse());
+      awaitBlockedOnLock();
+      commit.countDown();
+      firstId = first.get().id();
+
+      var response = retry.get(30, TimeUnit.SECONDS);
+      assertEquals(200, response.getStatus(), response.getContentAsString());
+      assertEquals("true", response.getHeader("Idempotent-Replayed"));
+      assertEquals(firstId, ((Number) JsonPath.read(response.getContentAsString(), "$.id")).longValue());
+    } finally {
+      commit.countDown();
+      if (firstId != null) {
+        bookingRepository.deleteById(firstId);
+      }
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // the retry's insert waits on the row of the uncommitted booking
+  private void awaitBlockedOnLock() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (jdbcTemplate.queryForObject(
+        "select count(*) from pg_stat_activity where wait_event_type = 'Lock'", Integer.class) == 0) {
+      assertTrue(System.nanoTime() < deadline, "the retry never waited for the first request");
+      Thread.sleep(10);
+    }
+  }
+}
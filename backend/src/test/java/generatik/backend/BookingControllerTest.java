@@ -1,32 +1,89 @@
 package generatik.backend;
 
 //with the help of static import, we can access the static members of a class directly without class name or any object
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.sql.Connection;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.sql.DataSource;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
 
+import com.jayway.jsonpath.JsonPath;
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import generatik.backend.repos.BookingRepository;
+import generatik.backend.services.AvailabilityIndex;
+import generatik.backend.services.OccupancyCalendar;
+
+import jakarta.persistence.EntityManagerFactory;
 
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 
 @SpringBootTest
+@ActiveProfiles("test")
 @AutoConfigureMockMvc
 class BookingControllerTest {
   @Autowired
   private MockMvc mockMvc;
 
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private AvailabilityIndex availabilityIndex;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private OccupancyCalendar occupancyCalendar;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Value("${admission.max-waiting-for-connection}")
+  private int maxWaitingForConnection;
+
   // GET /api/v1/booking-requests -> 200 + lista cu seed-ul așteptat
   @Test
   void testsBookingsGetAll() throws Exception {
@@ -149,15 +206,19 @@ class BookingControllerTest {
   // POST /api/v1/booking-requests
   @Test
   void testsBookingsPost() throws Exception {
-    String requestBody = """
+    // relative dates, a hardcoded day ends up in the past sooner or later
+    String start = LocalDate.now().plusDays(20).toString();
+    String end = LocalDate.now().plusDays(25).toString();
+    String requestTemplate = """
         {
           "adSpaceId": 1,
-          "advertiserName": "Acme Corp new",
-          "advertiserEmail": "contactnew@acme.com",
-          "startDate": "2025-12-05",
-          "endDate": "2025-12-10"
+          "advertiserName": "%s",
+          "advertiserEmail": "%s",
+          "startDate": "%s",
+          "endDate": "%s"
         }
         """;
+    String requestBody = requestTemplate.formatted("Acme Corp new", "contactnew@acme.com", start, end);
 
     // happy case: status 200 + verify the fields from the seed
     mockMvc.perform(post("/api/v1/booking-requests")
@@ -169,22 +230,34 @@ class BookingControllerTest {
         .andExpect(jsonPath("$.adSpaceId").value(1))
         .andExpect(jsonPath("$.advertiserName").value("Acme Corp new"))
         .andExpect(jsonPath("$.advertiserEmail").value("contactnew@acme.com"))
-        .andExpect(jsonPath("$.startDate").value("2025-12-05"))
-        .andExpect(jsonPath("$.endDate").value("2025-12-10"))
+        .andExpect(jsonPath("$.startDate").value(start))
+        .andExpect(jsonPath("$.endDate").value(end))
         .andExpect(jsonPath("$.status").value("Pending"))
         .andExpect(jsonPath("$.totalCost").value(1500));
 
-    // the second request is the same as previous should fail because of the
-    // bussiness constraints
+    // the same advertiser again (on free days) should fail because of the
+    // bussiness constraints, refused before the insert -> 409
+    String duplicateBody = requestTemplate.formatted("Acme Corp new", "contactnew@acme.com",
+        LocalDate.now().plusDays(30).toString(), LocalDate.now().plusDays(35).toString());
     mockMvc.perform(post("/api/v1/booking-requests")
         .contentType(MediaType.APPLICATION_JSON)
-        .content(requestBody)
+        .content(duplicateBody)
         .accept(MediaType.APPLICATION_JSON))
-        .andExpect(status().isBadRequest())
-        .andExpect(jsonPath("$.status").value(400))
-        .andExpect(jsonPath("$.error").value("Bad Request"))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.status").value(409))
+        .andExpect(jsonPath("$.error").value("Conflict"))
         .andExpect(jsonPath("$.message").value(
             containsString("Advertiser name or email already exists")));
+    // someone else on days overlapping the booking above -> 409, nothing is saved
+    String overlappingBody = requestTemplate.formatted("Overlap Corp", "overlap@acme.com",
+        LocalDate.now().plusDays(22).toString(), LocalDate.now().plusDays(27).toString());
+    mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(overlappingBody)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.message").value(containsString("already booked")));
+
     // missing startDate / endDate
     String missingDatesBody = """
         {
@@ -225,10 +298,10 @@ class BookingControllerTest {
           "adSpaceId": 1,
           "advertiserName": "Wrong Range Corp",
           "advertiserEmail": "wrongrange@acme.com",
-          "startDate": "2025-12-10",
-          "endDate": "2025-12-05"
+          "startDate": "%s",
+          "endDate": "%s"
         }
-        """;
+        """.formatted(end, start);
 
     mockMvc.perform(post("/api/v1/booking-requests")
         .contentType(MediaType.APPLICATION_JSON)
@@ -237,4 +310,591 @@ class BookingControllerTest {
         .andExpect(status().isBadRequest())
         .andExpect(jsonPath("$.message").value("endDate must be after startDate"));
   }
+
+  // GET /api/v1/booking-requests?limit=&after= -> keyset pages
+  @Test
+  void testsBookingsPagination() throws Exception {
+    var firstPage = mockMvc.perform(get("/api/v1/booking-requests")
+        .param("limit", "1")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(header().exists("X-Next-Cursor"))
+        .andReturn();
+    String cursor = firstPage.getResponse().getHeader("X-Next-Cursor");
+
+    // the next page starts strictly after the cursor
+    mockMvc.perform(get("/api/v1/booking-requests")
+        .param("limit", "1")
+        .param("after", cursor)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(greaterThan(Integer.parseInt(cursor))));
+
+    // edge case: invalid page size -> 400
+    mockMvc.perform(get("/api/v1/booking-requests")
+        .param("limit", "-1")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // GET /api/v1/booking-requests/export -> ndjson stream
+  @Test
+  void testsBookingsExport() throws Exception {
+    var started = mockMvc.perform(get("/api/v1/booking-requests/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    var result = mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+        .andReturn();
+
+    // one json object per line, the seeded booking included
+    var lines = result.getResponse().getContentAsString().split("\n");
+    assertTrue(lines.length >= 2);
+    assertTrue(lines[0].startsWith("{") && lines[0].endsWith("}"));
+    assertTrue(result.getResponse().getContentAsString().contains("\"advertiserName\":\"Acme Corp\""));
+  }
+
+  // read paths must stay at one statement per request, whatever the number of
+  // bookings / ad spaces (guards against the eager ad space N+1 coming back)
+  @Test
+  void testsBookingReadsIssueOneStatement() throws Exception {
+    var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    boolean wasEnabled = statistics.isStatisticsEnabled(); // on already when metrics are exported
+    statistics.setStatisticsEnabled(true);
+    try {
+      statistics.clear();
+      mockMvc.perform(get("/api/v1/booking-requests")
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+      assertEquals(1, statistics.getPrepareStatementCount());
+
+      statistics.clear();
+      mockMvc.perform(get("/api/v1/booking-requests/{id}", 1L)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+      assertEquals(1, statistics.getPrepareStatementCount());
+      assertEquals(0, statistics.getEntityLoadCount()); // projections only, nothing hydrated
+    } finally {
+      statistics.setStatisticsEnabled(wasEnabled);
+    }
+  }
+
+  // n+1 guard: a page costs the same statements whatever the number of rows in it
+  @Test
+  void testsBookingReadsHaveNoNPlusOne() throws Exception {
+    mockMvc.perform(get("/api/v1/booking-requests")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(greaterThan(1)))
+        .andExpect(SqlStatements.atMost(1));
+
+    mockMvc.perform(get("/api/v1/booking-requests")
+        .param("status", "Pending")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(SqlStatements.atMost(1));
+
+    mockMvc.perform(get("/api/v1/booking-requests/{id}", 1L)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("X-SQL-Statements", "1")) // the projection query, counted
+        .andExpect(header().string("X-SQL-Time", matchesPattern("\\d+\\.\\d{3}")));
+  }
+
+  // the in-memory index only knows this instance's bookings; when it misses one
+  // (booked through another instance) the exclusion constraint still refuses it
+  @Test
+  void testsBookingOverlapRejectedByDatabase() throws Exception {
+    // forget the seeded booking of ad space 1, as if another instance had made it
+    availabilityIndex.remove(1L, 1L, LocalDate.now().plusDays(3));
+    try {
+      String overlappingBody = """
+          {
+            "adSpaceId": 1,
+            "advertiserName": "Other Node Corp",
+            "advertiserEmail": "othernode@acme.com",
+            "startDate": "%s",
+            "endDate": "%s"
+          }
+          """.formatted(LocalDate.now().plusDays(4), LocalDate.now().plusDays(6));
+
+      mockMvc.perform(post("/api/v1/booking-requests")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(overlappingBody)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isConflict())
+          .andExpect(jsonPath("$.message").value(containsString("already booked")));
+    } finally {
+      availabilityIndex.rebuild();
+    }
+  }
+
+  // the other way round: a booking rejected through another instance is still in this one's
+  // index, the db tells it the days are free again
+  @Test
+  void testsBookingRejectedElsewhereFreesItsDays() throws Exception {
+    var body = """
+        {"adSpaceId": 5, "advertiserName": "%s", "advertiserEmail": "%s",
+         "startDate": "%s", "endDate": "%s"}
+        """;
+    var start = LocalDate.now().plusDays(120);
+    Number first = JsonPath.read(mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body.formatted("Rejected Elsewhere", "elsewhere.rejected@acme.com", start, start.plusDays(5))))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString(), "$.id");
+    Number second = null;
+    try {
+      // what the reject commits on the other instance, no event reaches this one
+      jdbcTemplate.update("update bookings set status = 'Rejected' where id = ?", first.longValue());
+
+      second = JsonPath.read(mockMvc.perform(post("/api/v1/booking-requests")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body.formatted("Took The Days", "took.the.days@acme.com", start.plusDays(1), start.plusDays(3))))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString(), "$.id");
+    } finally {
+      bookingRepository.deleteById(first.longValue());
+      if (second != null) {
+        bookingRepository.deleteById(second.longValue());
+      }
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // POST /api/v1/booking-requests/bulk -> one result per item, bad items don't fail the batch
+  @Test
+  void testsBookingsBulkPost() throws Exception {
+    String item = """
+        {"adSpaceId": %d, "advertiserName": "%s", "advertiserEmail": "%s", "startDate": "%s", "endDate": "%s"}""";
+    String body = "[" + String.join(",",
+        item.formatted(6, "Bulk One", "bulk1@acme.com", LocalDate.now().plusDays(40), LocalDate.now().plusDays(45)),
+        // overlaps the item above
+        item.formatted(6, "Bulk Two", "bulk2@acme.com", LocalDate.now().plusDays(42), LocalDate.now().plusDays(44)),
+        item.formatted(99999, "Bulk Three", "bulk3@acme.com", LocalDate.now().plusDays(40),
+            LocalDate.now().plusDays(45)),
+        item.formatted(7, "Bulk Four", "bulk4@acme.com", LocalDate.now().plusDays(45), LocalDate.now().plusDays(40)),
+        // name taken by the seed
+        item.formatted(7, "Acme Corp", "bulk5@acme.com", LocalDate.now().plusDays(40), LocalDate.now().plusDays(45)),
+        item.formatted(7, "Bulk Six", "bulk6@acme.com", LocalDate.now().plusDays(40), LocalDate.now().plusDays(42)))
+        + "]";
+
+    mockMvc.perform(post("/api/v1/booking-requests/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(6))
+        .andExpect(jsonPath("$[0].status").value(200))
+        .andExpect(jsonPath("$[0].booking.id").exists())
+        .andExpect(jsonPath("$[0].booking.totalCost").value(1000)) // 5 days * 200
+        .andExpect(jsonPath("$[1].status").value(409))
+        .andExpect(jsonPath("$[2].status").value(404))
+        .andExpect(jsonPath("$[3].status").value(400))
+        .andExpect(jsonPath("$[3].message").value("endDate must be after startDate"))
+        .andExpect(jsonPath("$[4].status").value(409))
+        .andExpect(jsonPath("$[4].message").value("Advertiser name or email already exists"))
+        .andExpect(jsonPath("$[5].status").value(200))
+        .andExpect(jsonPath("$[5].booking.adSpaceId").value(7));
+
+    // edge case: empty batch -> 400
+    mockMvc.perform(post("/api/v1/booking-requests/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // a batch that loses a race is redone item by item, every item still gets its own 200 / 404 / 409
+  @Test
+  void testsBookingsBulkFallbackKeepsItemResults() throws Exception {
+    var start = LocalDate.now().plusDays(140);
+    // written by another instance: neither the availability index nor the advertiser filter knows it
+    Long hidden = jdbcTemplate.queryForObject("""
+        insert into bookings (id, advertiser_name, advertiser_email, start_date, end_date, total_cost, status,
+          ad_space_id)
+        values (nextval('bookings_seq'), 'Hidden Writer', 'hidden.writer@acme.com', ?, ?, 0, 'Pending', 6)
+        returning id""", Long.class, start, start.plusDays(5));
+    String item = """
+        {"adSpaceId": %d, "advertiserName": "%s", "advertiserEmail": "%s", "startDate": "%s", "endDate": "%s"}""";
+    String body = "[" + String.join(",",
+        // overlaps the hidden booking, fails the batch insert
+        item.formatted(6, "Fallback One", "fallback1@acme.com", start.plusDays(1), start.plusDays(3)),
+        item.formatted(99999, "Fallback Two", "fallback2@acme.com", start, start.plusDays(2)),
+        item.formatted(7, "Fallback Three", "fallback3@acme.com", start, start.plusDays(2)))
+        + "]";
+
+    Number created = null;
+    try {
+      var result = mockMvc.perform(post("/api/v1/booking-requests/bulk")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(3))
+          .andExpect(jsonPath("$[0].status").value(409))
+          .andExpect(jsonPath("$[1].status").value(404))
+          .andExpect(jsonPath("$[1].message").value("Ad space not found: 99999"))
+          .andExpect(jsonPath("$[2].status").value(200))
+          .andReturn();
+      created = JsonPath.read(result.getResponse().getContentAsString(), "$[2].booking.id");
+    } finally {
+      bookingRepository.deleteById(hidden);
+      if (created != null) {
+        bookingRepository.deleteById(created.longValue());
+      }
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // PATCH /api/v1/booking-requests/bulk/approve + /bulk/reject -> one result per id
+  @Test
+  void testsBookingsBulkApproveReject() throws Exception {
+    String item = """
+        {"adSpaceId": 8, "advertiserName": "%s", "advertiserEmail": "%s", "startDate": "%s", "endDate": "%s"}""";
+    var created = mockMvc.perform(post("/api/v1/booking-requests/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[" + item.formatted("Moderated One", "mod1@acme.com", LocalDate.now().plusDays(50),
+            LocalDate.now().plusDays(55)) + ","
+            + item.formatted("Moderated Two", "mod2@acme.com", LocalDate.now().plusDays(60),
+                LocalDate.now().plusDays(62))
+            + "]")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn();
+    Number first = JsonPath.read(created.getResponse().getContentAsString(), "$[0].booking.id");
+    Number second = JsonPath.read(created.getResponse().getContentAsString(), "$[1].booking.id");
+
+    // unknown id -> 404, a repeated id gets the same result twice
+    mockMvc.perform(patch("/api/v1/booking-requests/bulk/approve")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[%d, 99999, %d]".formatted(first.longValue(), first.longValue()))
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(3))
+        .andExpect(jsonPath("$[0].status").value(200))
+        .andExpect(jsonPath("$[0].booking.status").value("Approved"))
+        .andExpect(jsonPath("$[1].status").value(404))
+        .andExpect(jsonPath("$[2].status").value(200));
+
+    // the first one is not pending anymore -> 400, the second one gets rejected
+    mockMvc.perform(patch("/api/v1/booking-requests/bulk/reject")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[%d, %d]".formatted(first.longValue(), second.longValue()))
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].status").value(400))
+        .andExpect(jsonPath("$[0].message").value("Only pending bookings can be rejected"))
+        .andExpect(jsonPath("$[1].status").value(200))
+        .andExpect(jsonPath("$[1].booking.status").value("Rejected"));
+
+    mockMvc.perform(get("/api/v1/booking-requests/{id}", first.longValue()))
+        .andExpect(jsonPath("$.status").value("Approved"));
+
+    // the rejected days are free again
+    mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(item.formatted("Moderated Three", "mod3@acme.com", LocalDate.now().plusDays(60),
+            LocalDate.now().plusDays(62)))
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    // edge case: empty list -> 400
+    mockMvc.perform(patch("/api/v1/booking-requests/bulk/reject")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("[]")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isBadRequest());
+  }
+
+  // GET /actuator/prometheus -> business counters / gauges next to the http, pool and cache meters
+  // (hibernate's only with the hibernate-stats profile)
+  @Test
+  void testsMetricsExposed() throws Exception {
+    var created = mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("""
+            {"adSpaceId": 5, "advertiserName": "Metered", "advertiserEmail": "metered@acme.com",
+             "startDate": "%s", "endDate": "%s"}
+            """.formatted(LocalDate.now().plusDays(70), LocalDate.now().plusDays(72)))
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn();
+    Number id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+
+    try {
+      mockMvc.perform(patch("/api/v1/booking-requests/{id}/approve", id.longValue()))
+          .andExpect(status().isOk());
+      mockMvc.perform(get("/actuator/prometheus"))
+          .andExpect(status().isOk())
+          .andExpect(content().string(containsString(
+              "booking_status_changes_total{city=\"Bucuresti\",status=\"Pending\",type=\"Billboard\"}")))
+          .andExpect(content().string(containsString(
+              "booking_status_changes_total{city=\"Bucuresti\",status=\"Approved\",type=\"Billboard\"}")))
+          .andExpect(content().string(containsString("bookings_pending ")))
+          .andExpect(content().string(containsString("advertiser_filter_checks_total{outcome=\"new\"}")))
+          .andExpect(content().string(containsString("advertiser_filter_memory_bytes ")))
+          .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+          .andExpect(content().string(containsString("hikaricp_connections_active{")))
+          .andExpect(content().string(containsString("cache_size{cache=\"adSpaces\"")))
+          .andExpect(content().string(not(containsString("hibernate_statements_total{"))));
+    } finally {
+      // the listing / calendar tests expect the seed only
+      bookingRepository.deleteById(id.longValue());
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // POST with an Idempotency-Key: a retry replays the first booking without any sql,
+  // the key with another body is refused
+  @Test
+  void testsBookingsPostIdempotencyKey() throws Exception {
+    var key = UUID.randomUUID().toString();
+    String body = """
+        {"adSpaceId": 7, "advertiserName": "Once Corp", "advertiserEmail": "once@acme.com",
+         "startDate": "%s", "endDate": "%s"}
+        """.formatted(LocalDate.now().plusDays(80), LocalDate.now().plusDays(82));
+    var created = mockMvc.perform(post("/api/v1/booking-requests")
+        .header("Idempotency-Key", key)
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body)
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Idempotent-Replayed", "false"))
+        .andReturn();
+    Number id = JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+
+    try {
+      mockMvc.perform(post("/api/v1/booking-requests")
+          .header("Idempotency-Key", key)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk())
+          .andExpect(header().string("Idempotent-Replayed", "true"))
+          .andExpect(header().string("X-SQL-Statements", "0"))
+          .andExpect(content().json(created.getResponse().getContentAsString()));
+
+      mockMvc.perform(post("/api/v1/booking-requests")
+          .header("Idempotency-Key", key)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body.replace("Once Corp", "Twice Corp"))
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isUnprocessableContent());
+
+      // without a key the same body is a second booking of the same days
+      mockMvc.perform(post("/api/v1/booking-requests")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body)
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isConflict());
+    } finally {
+      bookingRepository.deleteById(id.longValue());
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  // GET /api/v1/booking-requests/events -> committed changes pushed as sse events, filtered per stream
+  @Test
+  void testsBookingEventsStream() throws Exception {
+    var all = openEvents();
+    var otherAdSpace = openEvents("adSpaceId", "2");
+    var approvedOnly = openEvents("status", "Approved");
+    var pendingOnly = openEvents("status", "Pending");
+    Number id = null;
+    Number other = null;
+    try {
+      id = createStreamBooking(4, "Stream Corp");
+      awaitEvent(all, "Created", id);
+      awaitEvent(pendingOnly, "Created", id);
+      mockMvc.perform(patch("/api/v1/booking-requests/{id}/approve", id.longValue())
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+      awaitEvent(all, "Approved", id);
+      awaitEvent(approvedOnly, "Approved", id);
+      // the Pending dashboard has to hear that the booking left Pending
+      awaitEvent(pendingOnly, "Approved", id);
+
+      other = createStreamBooking(2, "Other Stream");
+      awaitEvent(otherAdSpace, "Created", other);
+      mockMvc.perform(patch("/api/v1/booking-requests/{id}/reject", other.longValue())
+          .accept(MediaType.APPLICATION_JSON))
+          .andExpect(status().isOk());
+      awaitEvent(pendingOnly, "Rejected", other);
+      awaitEvent(all, "Rejected", other);
+
+      // a stream sends its events in order: had these been let through, they would have come
+      // before the ones awaited above
+      assertFalse(approvedOnly.getResponse().getContentAsString().contains("event:Created"));
+      assertFalse(approvedOnly.getResponse().getContentAsString().contains("event:Rejected"));
+      assertFalse(otherAdSpace.getResponse().getContentAsString().contains("{\"id\":" + id + ","));
+    } finally {
+      for (var stream : List.of(all, otherAdSpace, approvedOnly, pendingOnly)) {
+        stream.getRequest().getAsyncContext().complete();
+      }
+      for (var booking : Arrays.asList(id, other)) {
+        if (booking != null) {
+          bookingRepository.deleteById(booking.longValue());
+        }
+      }
+      availabilityIndex.rebuild();
+      occupancyCalendar.rebuild();
+    }
+  }
+
+  private MvcResult openEvents(String... filter) throws Exception {
+    var builder = get("/api/v1/booking-requests/events").accept(MediaType.TEXT_EVENT_STREAM);
+    for (int i = 0; i < filter.length; i += 2) {
+      builder.param(filter[i], filter[i + 1]);
+    }
+    return mockMvc.perform(builder)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+  }
+
+  private Number createStreamBooking(long adSpaceId, String advertiser) throws Exception {
+    var created = mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("""
+            {"adSpaceId": %d, "advertiserName": "%s", "advertiserEmail": "%s@acme.com",
+             "startDate": "%s", "endDate": "%s"}
+            """.formatted(adSpaceId, advertiser, advertiser.replace(' ', '.').toLowerCase(),
+                LocalDate.now().plusDays(90), LocalDate.now().plusDays(92)))
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn();
+    return JsonPath.read(created.getResponse().getContentAsString(), "$.id");
+  }
+
+  // events are sent from another thread, wait a bit for them
+  private static void awaitEvent(MvcResult stream, String type, Number bookingId) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (true) {
+      var content = stream.getResponse().getContentAsString();
+      if (content.contains("event:" + type + "\ndata:{\"id\":" + bookingId + ",")) {
+        return;
+      }
+      if (System.nanoTime() > deadline) {
+        throw new AssertionError("no " + type + " event for booking " + bookingId + " in: " + content);
+      }
+      Thread.sleep(20);
+    }
+  }
+
+  // one advertiser flooding POST gets 429s once its burst is used up, others are not affected
+  @Test
+  void testsBookingsPostRateLimited() throws Exception {
+    // past dates: every admitted request is a cheap 400, nothing is written
+    String body = """
+        {"adSpaceId": 1, "advertiserName": "Flood", "advertiserEmail": "%s",
+         "startDate": "2000-01-01", "endDate": "2000-01-02"}
+        """;
+    int refused = 0;
+    for (int i = 0; i < 40; i++) {
+      // a made up key per request does not get around the limit of the email
+      int status = mockMvc.perform(post("/api/v1/booking-requests")
+          .header("X-API-Key", UUID.randomUUID().toString())
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(body.formatted("flood@acme.com")))
+          .andReturn().getResponse().getStatus();
+      if (status == 429) {
+        refused++;
+      } else {
+        assertEquals(400, status);
+      }
+    }
+    assertTrue(refused > 0, "no request was rate limited");
+
+    mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body.formatted("flood@acme.com")))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"));
+    // the limit is per advertiser, a partner key has a bucket of its own
+    mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body.formatted("calm@acme.com")))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(post("/api/v1/booking-requests")
+        .header("X-API-Key", "partner-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body.formatted("flood@acme.com")))
+        .andExpect(status().isBadRequest());
+  }
+
+  // every item of a bulk request takes a token of its advertiser, one call can't go past the limit
+  @Test
+  void testsBookingsBulkRateLimited() throws Exception {
+    // past dates: every admitted item is a cheap 400, nothing is written
+    String item = """
+        {"adSpaceId": 1, "advertiserName": "Bulk Flood %d", "advertiserEmail": "bulkflood@acme.com",
+         "startDate": "2000-01-01", "endDate": "2000-01-02"}
+        """;
+    int items = 40;
+    var body = IntStream.range(0, items).mapToObj(item::formatted).collect(Collectors.joining(",", "[", "]"));
+
+    var response = mockMvc.perform(post("/api/v1/booking-requests/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("Retry-After"))
+        .andExpect(jsonPath("$.length()").value(items))
+        .andReturn().getResponse().getContentAsString();
+    List<Integer> statuses = JsonPath.read(response, "$[*].status");
+    assertTrue(statuses.contains(429), "no item was rate limited");
+    assertTrue(statuses.stream().allMatch(status -> status == 400 || status == 429), statuses.toString());
+
+    // the bucket is empty now, nothing of the next call gets through
+    mockMvc.perform(post("/api/v1/booking-requests/bulk")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(body))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"));
+  }
+
+  // with every pool connection taken and more than max-waiting-for-connection threads queued on
+  // it, an api call is turned away with a 503 before it reaches the db, and served again after
+  @Test
+  void testsOverloadedPoolSheds() throws Exception {
+    var pool = dataSource.unwrap(HikariDataSource.class);
+    var held = new ArrayList<Connection>();
+    var waiters = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      for (int i = 0; i < pool.getMaximumPoolSize(); i++) {
+        held.add(pool.getConnection());
+      }
+      for (int i = 0; i <= maxWaitingForConnection; i++) {
+        waiters.submit(() -> {
+          try (var connection = pool.getConnection()) {
+            return null;
+          }
+        });
+      }
+      var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (pool.getHikariPoolMXBean().getThreadsAwaitingConnection() <= maxWaitingForConnection) {
+        assertTrue(System.nanoTime() < deadline, "the waiters never queued on the pool");
+        Thread.sleep(10);
+      }
+
+      mockMvc.perform(get("/api/v1/ad-spaces"))
+          .andExpect(status().isServiceUnavailable())
+          .andExpect(header().string("Retry-After", "1"));
+    } finally {
+      for (var connection : held) {
+        connection.close();
+      }
+      waiters.shutdown();
+      assertTrue(waiters.awaitTermination(30, TimeUnit.SECONDS));
+    }
+    mockMvc.perform(get("/api/v1/ad-spaces"))
+        .andExpect(status().isOk());
+  }
 }
+
@@ -0,0 +1,130 @@
+package generatik.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.jayway.jsonpath.JsonPath;
+
+import generatik.backend.events.BookingEvent;
+import generatik.backend.events.OutboxMessage;
+import generatik.backend.events.OutboxSink;
+import generatik.backend.repos.BookingRepository;
+import generatik.backend.repos.OutboxRepository;
+import generatik.backend.services.AvailabilityIndex;
+import generatik.backend.services.OccupancyCalendar;
+import generatik.backend.services.OutboxRelay;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// booking changes reach booking_outbox with their own transaction, and the relay hands them
+// over at-least-once: a failing sink leaves them in place for the next run
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class OutboxTest {
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private OutboxRepository outboxRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private BookingRepository bookingRepository;
+
+  @Autowired
+  private AvailabilityIndex availabilityIndex;
+
+  @Autowired
+  private OccupancyCalendar occupancyCalendar;
+
+  @Test
+  void testsBookingChangesAreRelayedInOrder() throws Exception {
+    long id = createBooking("Outbox Corp", "outbox@acme.com", 300);
+    try {
+      mockMvc.perform(patch("/api/v1/booking-requests/" + id + "/approve"))
+          .andExpect(status().isOk());
+      assertEquals(2, pendingFor(id));
+
+      var delivered = new ArrayList<OutboxMessage>();
+      relay(delivered::addAll).relay();
+
+      var mine = delivered.stream().filter(message -> message.bookingId() == id).toList();
+      assertEquals(List.of(BookingEvent.Type.Created, BookingEvent.Type.Approved),
+          mine.stream().map(OutboxMessage::type).toList());
+      assertTrue(mine.get(0).id() < mine.get(1).id());
+      assertEquals("Approved", JsonPath.read(mine.get(1).booking(), "$.status"));
+      assertEquals(0, pendingFor(id));
+    } finally {
+      cleanUp(id);
+    }
+  }
+
+  @Test
+  void testsFailedDeliveryIsRetried() throws Exception {
+    long id = createBooking("Outbox Retry", "outbox.retry@acme.com", 310);
+    try {
+      relay(messages -> {
+        throw new IOException("sink down");
+      }).relay();
+      assertEquals(1, pendingFor(id)); // rolled back, still there
+
+      var delivered = new ArrayList<OutboxMessage>();
+      relay(delivered::addAll).relay();
+      assertEquals(1, delivered.stream().filter(message -> message.bookingId() == id).count());
+      assertEquals(0, pendingFor(id));
+    } finally {
+      cleanUp(id);
+    }
+  }
+
+  private OutboxRelay relay(OutboxSink sink) {
+    return new OutboxRelay(outboxRepository, sink, transactionManager, new SimpleMeterRegistry(), 100);
+  }
+
+  private long createBooking(String name, String email, int inDays) throws Exception {
+    var start = LocalDate.now().plusDays(inDays);
+    var body = mockMvc.perform(post("/api/v1/booking-requests")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("""
+            {"adSpaceId": 5, "advertiserName": "%s", "advertiserEmail": "%s", "startDate": "%s", "endDate": "%s"}"""
+            .formatted(name, email, start, start.plusDays(2))))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    return ((Number) JsonPath.read(body, "$.id")).longValue();
+  }
+
+  private int pendingFor(long bookingId) {
+    return jdbcTemplate.queryForObject("select count(*) from booking_outbox where booking_id = ?", Integer.class,
+        bookingId);
+  }
+
+  private void cleanUp(long id) {
+    jdbcTemplate.update("delete from booking_outbox where booking_id = ?", id);
+    bookingRepository.deleteById(id);
+    availabilityIndex.rebuild();
+    occupancyCalendar.rebuild();
+  }
+}
@@ -0,0 +1,96 @@
+package generatik.backend;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// the "replica" is a stand-in: the same local postgres under another application_name,
+// enough to tell which pool each connection came from
+// drop-first off, the schema and data of the other test classes are reused as they are
+@SpringBootTest(properties = {
+    "datasource.replica.urls=jdbc:postgresql://localhost:5432/postgres?ApplicationName=" + ReplicaRoutingTest.REPLICA,
+    "spring.liquibase.drop-first=false" })
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+  static final String REPLICA = "replica-standin";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  @Qualifier("replicaRoutingFilter")
+  private OncePerRequestFilter replicaRoutingFilter;
+
+  @Test
+  void testsReadOnlyTransactionsGoToReplica() {
+    assertEquals(REPLICA, server(true));
+    assertNotEquals(REPLICA, server(false));
+    // caches / in-memory indexes read the primary even in a read-only transaction
+    assertNotEquals(REPLICA, ReplicaRouting.onPrimary(() -> server(true)));
+  }
+
+  @Test
+  void testsRequestsThatWriteOrAskForTheirWritesReadThePrimary() throws Exception {
+    assertEquals(REPLICA, serverFor(new MockHttpServletRequest("GET", "/api/v1/booking-requests")));
+    assertNotEquals(REPLICA, serverFor(new MockHttpServletRequest("POST", "/api/v1/booking-requests")));
+
+    var readYourWrites = new MockHttpServletRequest("GET", "/api/v1/booking-requests");
+    readYourWrites.addHeader(ReplicaRoutingConfig.READ_YOUR_WRITES_HEADER, "true");
+    assertNotEquals(REPLICA, serverFor(readYourWrites));
+
+    // and the whole stack still answers with routing on
+    mockMvc.perform(get("/api/v1/booking-requests").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/ad-spaces").param("city", "Iasi").accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/api/v1/ad-spaces/search")
+        .param("city", "Bucuresti")
+        .param("type", "Billboard")
+        .param("from", "2099-01-01")
+        .param("to", "2099-01-02")
+        .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+  }
+
+  // application_name of the connection a transaction got
+  private String server(boolean readOnly) {
+    var template = new TransactionTemplate(transactionManager);
+    template.setReadOnly(readOnly);
+    return template.execute(status -> new JdbcTemplate(dataSource)
+        .queryForObject("select current_setting('application_name')", String.class));
+  }
+
+  // same, for a read-only transaction inside a request going through the routing filter
+  private String serverFor(MockHttpServletRequest request) throws Exception {
+    var seen = new AtomicReference<String>();
+    replicaRoutingFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(server(true)));
+    return seen.get();
+  }
+}
@@ -0,0 +1,26 @@
+package generatik.backend;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import generatik.backend.routers.SqlStatisticsAdvice;
+
+// checks on the X-SQL-Statements header every api response carries (SqlStatisticsAdvice):
+// a read that starts running one query per row (n+1) fails the test instead of production
+final class SqlStatements {
+
+  private SqlStatements() {
+  }
+
+  static ResultMatcher atMost(int max) {
+    return result -> {
+      var header = result.getResponse().getHeader(SqlStatisticsAdvice.STATEMENTS_HEADER);
+      assertNotNull(header, "no " + SqlStatisticsAdvice.STATEMENTS_HEADER + " header on the response");
+      int statements = Integer.parseInt(header);
+      assertTrue(statements <= max, "expected at most " + max + " sql statement(s) for "
+          + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + ", it ran " + statements);
+    };
+  }
+}
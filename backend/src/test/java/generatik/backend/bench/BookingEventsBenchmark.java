@@ -0,0 +1,128 @@
+package generatik.backend.bench;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+
+import generatik.backend.BackendApplication;
+
+// thousands of open dashboards on GET /booking-requests/events: threads and heap the open
+// streams cost, and how long a booking change takes to reach all of them
+// run with: ./mvnw test -Dtest=BookingEventsBenchmark -Dbench=true
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class BookingEventsBenchmark {
+  static final int SUBSCRIBERS = Integer.getInteger("bench.subscribers", 4_000);
+  static final int EVENTS = Integer.getInteger("bench.events", 50);
+
+  @Test
+  void fanOutToThousandsOfStreams() throws Exception {
+    try (var app = new SpringApplicationBuilder(BackendApplication.class)
+        .profiles("test")
+        .properties(
+            "server.port=0",
+            "booking-events.max-subscribers=" + SUBSCRIBERS,
+            "admission.bookings-per-second=1000000",
+            "logging.level.generatik=warn",
+            "logging.level.org.hibernate.SQL=warn")
+        .run()) {
+      var base = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort()
+          + "/api/v1/booking-requests";
+      var threads = ManagementFactory.getThreadMXBean();
+      var memory = ManagementFactory.getMemoryMXBean();
+      System.gc();
+      int threadsBefore = threads.getThreadCount();
+      long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+      // every stream counts down the latch of the booking id it sees approved
+      var received = new ConcurrentHashMap<Long, CountDownLatch>();
+      var connected = new AtomicInteger();
+      var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+      for (int i = 0; i < SUBSCRIBERS; i++) {
+        // a line subscriber, not ofLines(): the client must not block a thread per stream either
+        client.sendAsync(HttpRequest.newBuilder(URI.create(base + "/events?status=Approved")).build(),
+            HttpResponse.BodyHandlers.fromLineSubscriber(new Flow.Subscriber<String>() {
+              @Override
+              public void onSubscribe(Flow.Subscription subscription) {
+                connected.incrementAndGet();
+                subscription.request(Long.MAX_VALUE);
+              }
+
+              @Override
+              public void onNext(String line) {
+                if (line.startsWith("data:{\"id\":")) {
+                  var latch = received.get(Long.parseLong(line.substring(11, line.indexOf(','))));
+                  if (latch != null) {
+                    latch.countDown();
+                  }
+                }
+              }
+
+              @Override
+              public void onError(Throwable throwable) {
+              }
+
+              @Override
+              public void onComplete() {
+              }
+            }));
+      }
+      while (connected.get() < SUBSCRIBERS) {
+        Thread.sleep(100);
+      }
+      System.gc();
+      int threadsOpen = threads.getThreadCount();
+      long tomcatThreads = Thread.getAllStackTraces().keySet().stream()
+          .filter(t -> t.getName().startsWith("http-nio")).count();
+      long heapOpen = memory.getHeapMemoryUsage().getUsed();
+
+      var latencies = new ConcurrentLinkedQueue<Long>();
+      for (int i = 0; i < EVENTS; i++) {
+        var start = LocalDate.now().plusDays(200 + 2L * i);
+        var created = client.send(HttpRequest.newBuilder(URI.create(base))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString("""
+                {"adSpaceId": 3, "advertiserName": "fan%d", "advertiserEmail": "fan%d@bench.io", "startDate": "%s", "endDate": "%s"}"""
+                .formatted(i, i, start, start.plusDays(2))))
+            .build(), HttpResponse.BodyHandlers.ofString()).body();
+        long id = Long.parseLong(created.substring(6, created.indexOf(',')));
+        var latch = new CountDownLatch(SUBSCRIBERS);
+        received.put(id, latch);
+
+        long begin = System.nanoTime();
+        client.send(HttpRequest.newBuilder(URI.create(base + "/" + id + "/approve"))
+            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+            .build(), HttpResponse.BodyHandlers.discarding());
+        if (!latch.await(30, TimeUnit.SECONDS)) {
+          System.out.printf("event %d reached %d of %d streams%n", i, SUBSCRIBERS - latch.getCount(), SUBSCRIBERS);
+        }
+        latencies.add(System.nanoTime() - begin);
+      }
+
+      var sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+      System.out.printf("%n%d open event streams, %d approvals%n", SUBSCRIBERS, EVENTS);
+      System.out.printf("platform threads: %d before, %d with the streams open (server and client in this jvm)%n",
+          threadsBefore, threadsOpen);
+      System.out.printf("of which tomcat: %d (its pool, capped by server.tomcat.threads.max, not one per stream)%n",
+          tomcatThreads);
+      System.out.printf("heap: %.1f MB more with the streams open (%.1f KB per stream)%n",
+          (heapOpen - heapBefore) / 1e6, (heapOpen - heapBefore) / 1e3 / SUBSCRIBERS);
+      System.out.printf("approve -> last stream: p50 %.1f ms, p99 %.1f ms, max %.1f ms%n",
+          sorted[sorted.length / 2] / 1e6, sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1e6,
+          sorted[sorted.length - 1] / 1e6);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package generatik.backend.bench;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+// a 500 item campaign: 500 single POSTs against one POST /bulk, through the whole stack
+// run with: ./mvnw test -Dtest=BulkBookingBenchmark -Dbench=true
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class BulkBookingBenchmark {
+  static final int ITEMS = 500;
+  static final long[] AD_SPACES = { 1, 2, 4, 5, 6, 7, 8 }; // seeded ones
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void compareSingleAndBulkCreation() throws Exception {
+    // warm up both paths once
+    mockMvc.perform(post("/api/v1/booking-requests").contentType(MediaType.APPLICATION_JSON)
+        .content(item("warm", 0, 90))).andExpect(status().isOk());
+    mockMvc.perform(post("/api/v1/booking-requests/bulk").contentType(MediaType.APPLICATION_JSON)
+        .content("[" + item("warmbulk", 1, 90) + "]")).andExpect(status().isOk());
+
+    long begin = System.nanoTime();
+    for (int i = 0; i < ITEMS; i++) {
+      mockMvc.perform(post("/api/v1/booking-requests").contentType(MediaType.APPLICATION_JSON)
+          .content(item("s", i, 100))).andExpect(status().isOk());
+    }
+    long single = System.nanoTime() - begin;
+
+    var items = new ArrayList<String>();
+    for (int i = 0; i < ITEMS; i++) {
+      items.add(item("b", i, 100 + 2 * ITEMS));
+    }
+    begin = System.nanoTime();
+    mockMvc.perform(post("/api/v1/booking-requests/bulk").contentType(MediaType.APPLICATION_JSON)
+        .content("[" + String.join(",", items) + "]")).andExpect(status().isOk());
+    long bulk = System.nanoTime() - begin;
+
+    System.out.printf("%n%d bookings: single POSTs %d ms (%.0f/s), bulk %d ms (%.0f/s), %.1fx%n", ITEMS,
+        single / 1_000_000, ITEMS * 1e9 / single, bulk / 1_000_000, ITEMS * 1e9 / bulk, (double) single / bulk);
+  }
+
+  // item i gets its own two days on one of the ad spaces, starting `offset` days from now
+  private static String item(String prefix, int i, int offset) {
+    var start = LocalDate.now().plusDays(offset + 2L * (i / AD_SPACES.length));
+    return """
+        {"adSpaceId": %d, "advertiserName": "%s%d", "advertiserEmail": "%s%d@bench.io", "startDate": "%s", "endDate": "%s"}"""
+        .formatted(AD_SPACES[i % AD_SPACES.length], prefix, i, prefix, i, start, start.plusDays(2));
+  }
+}
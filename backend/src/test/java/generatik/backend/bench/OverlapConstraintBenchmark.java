@@ -0,0 +1,133 @@
+package generatik.backend.bench;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+// insert throughput of bookings with and without the bookings_no_overlap exclusion constraint
+// many writers, few ad spaces, random ranges -> every insert has to probe a hot gist index
+// works on copies of the table in a scratch schema, the app's data is never touched
+// run with: ./mvnw test -Dtest=OverlapConstraintBenchmark -Dbench=true
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class OverlapConstraintBenchmark {
+  static final String URL = System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/postgres");
+  static final String USER = System.getProperty("bench.user", "postgres");
+  static final String PASSWORD = System.getProperty("bench.password", "password");
+  static final int THREADS = Integer.getInteger("bench.threads", 16);
+  static final int AD_SPACES = Integer.getInteger("bench.adSpaces", 8);
+  static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("bench.seconds", 10));
+
+  static final String EXCLUSION_VIOLATION = "23P01";
+
+  record Result(String table, long inserted, long conflicts, Duration elapsed) {
+    double attemptsPerSecond() {
+      return (inserted + conflicts) * 1000.0 / elapsed.toMillis();
+    }
+
+    double insertsPerSecond() {
+      return inserted * 1000.0 / elapsed.toMillis();
+    }
+  }
+
+  @Test
+  void compareInsertThroughput() throws Exception {
+    try (var connection = connect(); var statement = connection.createStatement()) {
+      statement.execute("CREATE EXTENSION IF NOT EXISTS btree_gist");
+      statement.execute("DROP SCHEMA IF EXISTS overlap_bench CASCADE");
+      statement.execute("CREATE SCHEMA overlap_bench");
+      for (var table : new String[] { "plain", "constrained" }) {
+        statement.execute("""
+            CREATE TABLE overlap_bench.%s (
+              id bigserial PRIMARY KEY,
+              ad_space_id bigint NOT NULL,
+              start_date date,
+              end_date date,
+              status varchar(255),
+              booked_days daterange GENERATED ALWAYS AS (daterange(start_date, end_date, '[)')) STORED)
+            """.formatted(table));
+        statement.execute("CREATE INDEX ON overlap_bench.%s (ad_space_id)".formatted(table));
+      }
+      // same definition as changeset 1764545510014-13
+      statement.execute("""
+          ALTER TABLE overlap_bench.constrained ADD CONSTRAINT constrained_no_overlap
+          EXCLUDE USING gist (ad_space_id WITH =, booked_days WITH &&)
+          WHERE (status IS DISTINCT FROM 'Rejected' AND start_date IS NOT NULL AND end_date IS NOT NULL)
+          """);
+    }
+
+    try {
+      var plain = run("overlap_bench.plain");
+      var constrained = run("overlap_bench.constrained");
+
+      System.out.printf("%n%d writers, %d ad spaces, %ds each%n", THREADS, AD_SPACES, DURATION.toSeconds());
+      System.out.printf("%-28s %12s %12s %12s %12s%n", "table", "attempts/s", "inserts/s", "inserted", "conflicts");
+      for (var r : new Result[] { plain, constrained }) {
+        System.out.printf("%-28s %12.0f %12.0f %12d %12d%n", r.table(), r.attemptsPerSecond(), r.insertsPerSecond(),
+            r.inserted(), r.conflicts());
+      }
+    } finally {
+      try (var connection = connect(); var statement = connection.createStatement()) {
+        statement.execute("DROP SCHEMA overlap_bench CASCADE");
+      }
+    }
+  }
+
+  private Result run(String table) throws Exception {
+    var sql = "INSERT INTO " + table + " (ad_space_id, start_date, end_date, status) VALUES (?, ?, ?, 'Pending')";
+    var today = LocalDate.now();
+    var deadline = System.nanoTime() + DURATION.toNanos();
+
+    var tasks = new ArrayList<Callable<long[]>>();
+    for (int t = 0; t < THREADS; t++) {
+      tasks.add(() -> {
+        long inserted = 0;
+        long conflicts = 0;
+        var random = ThreadLocalRandom.current();
+        try (var connection = connect(); var insert = connection.prepareStatement(sql)) {
+          while (System.nanoTime() < deadline) {
+            var start = today.plusDays(1 + random.nextInt(365));
+            insert.setLong(1, 1 + random.nextInt(AD_SPACES));
+            insert.setDate(2, Date.valueOf(start));
+            insert.setDate(3, Date.valueOf(start.plusDays(1 + random.nextInt(14))));
+            try {
+              insert.executeUpdate();
+              inserted++;
+            } catch (SQLException ex) {
+              if (!EXCLUSION_VIOLATION.equals(ex.getSQLState())) {
+                throw ex;
+              }
+              conflicts++;
+            }
+          }
+        }
+        return new long[] { inserted, conflicts };
+      });
+    }
+
+    long begin = System.nanoTime();
+    long inserted = 0;
+    long conflicts = 0;
+    try (var pool = Executors.newFixedThreadPool(THREADS)) {
+      for (var future : pool.invokeAll(tasks)) {
+        var counts = future.get();
+        inserted += counts[0];
+        conflicts += counts[1];
+      }
+    }
+    return new Result(table, inserted, conflicts, Duration.ofNanos(System.nanoTime() - begin));
+  }
+
+  private static Connection connect() throws SQLException {
+    return DriverManager.getConnection(URL, USER, PASSWORD);
+  }
+}
@@ -0,0 +1,259 @@
+package generatik.backend.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import generatik.backend.BackendApplication;
+import generatik.backend.entities.adspace.AdSpaceType;
+import generatik.backend.entities.adspace.City;
+import tools.jackson.databind.json.JsonMapper;
+
+// end to end load test: a scripted mix of list / create / approve / reject calls over http,
+// throughput + hdrhistogram latency percentiles per endpoint
+// without -Dloadtest.url it starts the app itself with the "loadtest" profile, which first
+// generates the synthetic dataset (SyntheticDataset, sizes in application-loadtest.properties)
+// run with: ./mvnw test -Dtest=RestLoadTest -Dbench=true [-Dloadtest.url=http://localhost:8080]
+//   [-Dloadtest.clients=64 -Dloadtest.seconds=60 -Dloadtest.warmup=10
+//    -Dloadtest.ad-spaces=100000 -Dloadtest.bookings=10000000]
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class RestLoadTest {
+  static final int CLIENTS = Integer.getInteger("loadtest.clients", 64);
+  static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10));
+  static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.seconds", 60));
+  static final int PAGE = 500; // max page size of both list endpoints
+  static final int BOOTSTRAP_PAGES = 20;
+
+  // the mix, weights out of 100
+  enum Call {
+    ListBookings(40),
+    ListAdSpaces(20),
+    Create(20),
+    Approve(10),
+    Reject(10);
+
+    final int weight;
+
+    Call(int weight) {
+      this.weight = weight;
+    }
+  }
+
+  record Stats(Histogram latencies, Map<Integer, AtomicLong> statuses) {
+    static Stats create() {
+      // microseconds, up to a minute, 3 significant digits
+      return new Stats(new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3), new ConcurrentHashMap<>());
+    }
+  }
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .build();
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+  private final List<Long> adSpaceIds = new CopyOnWriteArrayList<>(); // create targets
+  private final ConcurrentLinkedQueue<Long> pending = new ConcurrentLinkedQueue<>(); // approve / reject targets
+  private final AtomicLong maxBookingId = new AtomicLong();
+  private final AtomicLong names = new AtomicLong();
+  private final String nonce = Long.toString(System.currentTimeMillis() % 1_000_000, 36); // names stay unique per run
+  private String base;
+
+  @Test
+  void runMixedLoad() throws Exception {
+    ConfigurableApplicationContext app = null;
+    var url = System.getProperty("loadtest.url");
+    if (url == null) {
+      long begin = System.nanoTime();
+      var builder = new SpringApplicationBuilder(BackendApplication.class)
+          .profiles("loadtest")
+          .properties("server.port=0");
+      for (var size : new String[] { "loadtest.ad-spaces", "loadtest.bookings" }) {
+        if (System.getProperty(size) != null) {
+          builder.properties(size + "=" + System.getProperty(size));
+        }
+      }
+      app = builder.run();
+      url = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+      System.out.printf("%napp started with the synthetic dataset in %d s%n",
+          TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin));
+    }
+    base = url + "/api/v1";
+
+    try {
+      bootstrap();
+      System.out.printf("targets: %d ad spaces, %d pending bookings%n", adSpaceIds.size(), pending.size());
+
+      run(WARMUP);
+      var stats = run(DURATION);
+      report(stats);
+    } finally {
+      if (app != null) {
+        app.close();
+      }
+    }
+  }
+
+  // ids to aim creates / approves / rejects at, read through the api like a client would
+  private void bootstrap() throws Exception {
+    long after = 0;
+    for (int p = 0; p < BOOTSTRAP_PAGES; p++) {
+      var page = jsonMapper.readTree(get("/ad-spaces?limit=" + PAGE + "&after=" + after).body());
+      if (page.isEmpty()) {
+        break;
+      }
+      page.forEach(node -> adSpaceIds.add(node.get("id").asLong()));
+      after = adSpaceIds.get(adSpaceIds.size() - 1);
+    }
+    after = 0;
+    for (int p = 0; p < BOOTSTRAP_PAGES; p++) {
+      var page = jsonMapper.readTree(get("/booking-requests?status=Pending&limit=" + PAGE + "&after=" + after).body());
+      if (page.isEmpty()) {
+        break;
+      }
+      for (var node : page) {
+        after = node.get("id").asLong();
+        pending.add(after);
+      }
+    }
+    // listing pages start anywhere below the last pending id seen
+    maxBookingId.set(after);
+    if (adSpaceIds.isEmpty()) {
+      throw new IllegalStateException("no available ad space at " + base);
+    }
+  }
+
+  private Map<Call, Stats> run(Duration duration) throws Exception {
+    var stats = new LinkedHashMap<Call, Stats>();
+    for (var call : Call.values()) {
+      stats.put(call, Stats.create());
+    }
+    long deadline = System.nanoTime() + duration.toNanos();
+    try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < CLIENTS; c++) {
+        clients.submit(() -> {
+          while (System.nanoTime() < deadline) {
+            var call = pick();
+            long start = System.nanoTime();
+            int status;
+            try {
+              status = send(call);
+            } catch (Exception ex) {
+              status = -1; // connection level failure
+            }
+            var s = stats.get(call);
+            s.latencies().recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            s.statuses().computeIfAbsent(status, k -> new AtomicLong()).incrementAndGet();
+          }
+          return null;
+        });
+      }
+    }
+    return stats;
+  }
+
+  private static Call pick() {
+    int roll = ThreadLocalRandom.current().nextInt(100);
+    for (var call : Call.values()) {
+      roll -= call.weight;
+      if (roll < 0) {
+        return call;
+      }
+    }
+    return Call.ListBookings;
+  }
+
+  private int send(Call call) throws Exception {
+    var random = ThreadLocalRandom.current();
+    return switch (call) {
+      case ListBookings -> get("/booking-requests?status=Pending&limit=100&after="
+          + random.nextLong(maxBookingId.get() + 1)).statusCode();
+      case ListAdSpaces -> get("/ad-spaces?city=" + pick(City.values()) + "&type=" + pick(AdSpaceType.values())
+          + "&limit=100").statusCode();
+      case Create -> create();
+      case Approve, Reject -> {
+        var id = pending.poll();
+        if (id == null) { // ran out of pending bookings, the creates refill the queue
+          yield create();
+        }
+        yield client.send(HttpRequest.newBuilder(URI.create(base + "/booking-requests/" + id + "/"
+            + (call == Call.Approve ? "approve" : "reject")))
+            .method("PATCH", HttpRequest.BodyPublishers.noBody())
+            .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+      }
+    };
+  }
+
+  // far past the generated weeks, so most creates succeed; the rest are real 409s
+  private int create() throws Exception {
+    var random = ThreadLocalRandom.current();
+    var start = LocalDate.now().plusDays(2_000 + random.nextInt(20_000));
+    var name = "lc" + nonce + "-" + names.incrementAndGet();
+    var response = client.send(HttpRequest.newBuilder(URI.create(base + "/booking-requests"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString("""
+            {"adSpaceId": %d, "advertiserName": "%s", "advertiserEmail": "%s@load.test", "startDate": "%s", "endDate": "%s"}"""
+            .formatted(adSpaceIds.get(random.nextInt(adSpaceIds.size())), name, name, start,
+                start.plusDays(1 + random.nextInt(5)))))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() == 200) {
+      pending.add(jsonMapper.readTree(response.body()).get("id").asLong());
+    }
+    return response.statusCode();
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    return client.send(HttpRequest.newBuilder(URI.create(base + path)).GET().build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static <T> T pick(T[] values) {
+    return values[ThreadLocalRandom.current().nextInt(values.length)];
+  }
+
+  private void report(Map<Call, Stats> stats) {
+    System.out.printf("%n%d clients, %d s%n", CLIENTS, DURATION.toSeconds());
+    System.out.printf("%-13s %9s %8s %8s %8s %8s %8s %9s  %s%n", "endpoint", "requests", "req/s", "p50 ms",
+        "p90 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+    long total = 0;
+    for (var entry : stats.entrySet()) {
+      var h = entry.getValue().latencies();
+      var statuses = new TreeMap<Integer, Long>();
+      entry.getValue().statuses().forEach((status, count) -> statuses.put(status, count.get()));
+      total += h.getTotalCount();
+      System.out.printf("%-13s %9d %8.0f %8.1f %8.1f %8.1f %8.1f %9.1f  %s%n", entry.getKey(), h.getTotalCount(),
+          h.getTotalCount() / (double) DURATION.toSeconds(), h.getValueAtPercentile(50) / 1e3,
+          h.getValueAtPercentile(90) / 1e3, h.getValueAtPercentile(99) / 1e3, h.getValueAtPercentile(99.9) / 1e3,
+          h.getMaxValue() / 1e3, statuses);
+    }
+    System.out.printf("%-13s %9d %8.0f%n", "total", total, total / (double) DURATION.toSeconds());
+
+    // full distribution, for plotting (hdrhistogram.github.io/HdrHistogram/plotFiles.html)
+    var merged = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+    stats.values().forEach(s -> merged.add(s.latencies()));
+    System.out.println("\nall endpoints, microseconds:");
+    merged.outputPercentileDistribution(System.out, 1.0);
+  }
+}
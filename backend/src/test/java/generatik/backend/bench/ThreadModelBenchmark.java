@@ -0,0 +1,139 @@
+package generatik.backend.bench;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+
+import generatik.backend.BackendApplication;
+
+// latency / throughput of booking create + list over real http, tomcat on platform threads
+// (default) against the opt-in "virtual" profile; each mode gets its own app instance and
+// a fresh schema, both with the same connection pool size
+// run with: ./mvnw test -Dtest=ThreadModelBenchmark -Dbench=true
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class ThreadModelBenchmark {
+  static final int CLIENTS = Integer.getInteger("bench.clients", 400); // more than tomcat's 200 workers
+  static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("bench.warmup", 3));
+  static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("bench.seconds", 10));
+  static final int POOL_SIZE = 20; // as in application-virtual.properties
+  static final long[] AD_SPACES = { 1, 2, 3, 4, 5, 6, 7, 8 };
+
+  record Result(String mode, String endpoint, long requests, Map<Integer, Long> statuses, long[] latencies,
+      Duration elapsed) {
+    double perSecond() {
+      return requests * 1000.0 / elapsed.toMillis();
+    }
+
+    double percentileMillis(double p) {
+      return latencies[(int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1)] / 1e6;
+    }
+  }
+
+  private final HttpClient client = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .executor(Executors.newVirtualThreadPerTaskExecutor())
+      .build();
+
+  @Test
+  void comparePlatformAndVirtualThreads() throws Exception {
+    var results = new ArrayList<Result>();
+    for (var mode : List.of("platform", "virtual")) {
+      var profiles = mode.equals("virtual") ? new String[] { "test", "virtual" } : new String[] { "test" };
+      try (var app = new SpringApplicationBuilder(BackendApplication.class)
+          .profiles(profiles)
+          .properties(
+              "server.port=0",
+              "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+              "spring.jpa.show-sql=false", // measure the server, not the console
+              "logging.level.generatik=warn",
+              "logging.level.org.hibernate.SQL=warn")
+          .run()) {
+        var base = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort()
+            + "/api/v1/booking-requests";
+
+        var next = new AtomicInteger();
+        IntFunction<HttpRequest> create = i -> {
+          // every request books its own two days, nothing overlaps
+          int n = next.getAndIncrement();
+          var start = LocalDate.now().plusDays(100 + 2L * (n / AD_SPACES.length));
+          return HttpRequest.newBuilder(URI.create(base))
+              .header("Content-Type", "application/json")
+              .POST(HttpRequest.BodyPublishers.ofString("""
+                  {"adSpaceId": %d, "advertiserName": "b%d", "advertiserEmail": "b%d@bench.io", "startDate": "%s", "endDate": "%s"}"""
+                  .formatted(AD_SPACES[n % AD_SPACES.length], n, n, start, start.plusDays(2))))
+              .build();
+        };
+        IntFunction<HttpRequest> list = i -> HttpRequest.newBuilder(URI.create(base + "?limit=100")).GET().build();
+
+        run(mode, "POST", create, WARMUP);
+        results.add(run(mode, "POST", create, DURATION));
+        run(mode, "GET", list, WARMUP);
+        results.add(run(mode, "GET", list, DURATION));
+      }
+    }
+
+    System.out.printf("%n%d concurrent clients, %d connections, %ds per run%n", CLIENTS, POOL_SIZE,
+        DURATION.toSeconds());
+    System.out.printf("%-9s %-5s %10s %9s %9s %9s  %s%n", "mode", "", "req/s", "p50 ms", "p99 ms", "max ms",
+        "statuses");
+    for (var r : results) {
+      System.out.printf("%-9s %-5s %10.0f %9.1f %9.1f %9.1f  %s%n", r.mode(), r.endpoint(), r.perSecond(),
+          r.percentileMillis(0.50), r.percentileMillis(0.99), r.latencies()[r.latencies().length - 1] / 1e6,
+          r.statuses());
+    }
+  }
+
+  // CLIENTS closed-loop clients, each sends its next request as soon as the previous answer is in
+  private Result run(String mode, String endpoint, IntFunction<HttpRequest> request, Duration duration)
+      throws Exception {
+    var latencies = new ConcurrentLinkedQueue<Long>();
+    var statuses = new ConcurrentHashMap<Integer, AtomicLong>();
+    long begin = System.nanoTime();
+    long deadline = begin + duration.toNanos();
+    try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int c = 0; c < CLIENTS; c++) {
+        int clientId = c;
+        clients.submit(() -> {
+          while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            int status;
+            try {
+              status = client.send(request.apply(clientId), HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception ex) {
+              status = -1; // connection level failure
+            }
+            latencies.add(System.nanoTime() - start);
+            statuses.computeIfAbsent(status, s -> new AtomicLong()).incrementAndGet();
+          }
+          return null;
+        });
+      }
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - begin);
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+    Arrays.sort(sorted);
+    var counts = new TreeMap<Integer, Long>();
+    statuses.forEach((status, count) -> counts.put(status, count.get()));
+    return new Result(mode, endpoint, sorted.length, counts, sorted, elapsed);
+  }
+}
@@ -13,16 +13,24 @@ export async function fetchAdSpaces(filters?: AdSpaceFilters): Promise<AdSpace[]
   if (filters?.type) params.append('type', filters.type);
   if (filters?.city) params.append('city', filters.city);
 
-  const queryString = params.toString();
-  const url = queryString ? `${API_BASE}?${queryString}` : API_BASE;
-
-  const response = await fetch(url);
-  if (!response.ok) {
-    throw new Error(`Failed to fetch ad spaces: ${response.status}`);
+  // the listing comes in pages, X-Next-Cursor is the 'after' of the next one until the last page
+  const spaces: AdSpace[] = [];
+  for (;;) {
+    const queryString = params.toString();
+    const url = queryString ? `${API_BASE}?${queryString}` : API_BASE;
+
+    const response = await fetch(url);
+    if (!response.ok) {
+      throw new Error(`Failed to fetch ad spaces: ${response.status}`);
+    }
+
+    spaces.push(...(await response.json()));
+    const next = response.headers.get('X-Next-Cursor');
+    if (!next) {
+      return spaces;
+    }
+    params.set('after', next);
   }
-
-  const data = await response.json();
-  return data;
 }
 
 export async function deleteAdSpace(id: number): Promise<void> {
@@ -49,13 +49,23 @@ export async function createBooking(payload: BookingCreationPayload): Promise<Bo
 export async function fetchBookings(status?: BookingStatus): Promise<BookingDTO[]> {
   const params = new URLSearchParams();
   if (status) params.append('status', status);
-  const url = params.toString() ? `${API_BASE}?${params.toString()}` : API_BASE;
 
-  const res = await fetch(url);
-  if (!res.ok) {
-    throw new Error(`Failed to fetch bookings: ${res.status}`);
+  // paged like the ad spaces: follow X-Next-Cursor until the last page
+  const bookings: BookingDTO[] = [];
+  for (;;) {
+    const url = params.toString() ? `${API_BASE}?${params.toString()}` : API_BASE;
+
+    const res = await fetch(url);
+    if (!res.ok) {
+      throw new Error(`Failed to fetch bookings: ${res.status}`);
+    }
+    bookings.push(...(await res.json()));
+    const next = res.headers.get('X-Next-Cursor');
+    if (!next) {
+      return bookings;
+    }
+    params.set('after', next);
   }
-  return res.json();
 }
 
 export async function approveBooking(id: number): Promise<BookingDTO> {
@@ -0,0 +1,16 @@
+package generatik.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+// read-only twin of the backend's catalogue / booking listings on webflux + r2dbc:
+// a request waiting on postgres or on a slow client holds no thread, and rows go out
+// as they are read instead of being collected into a List first
+// writes (and the schema, through liquibase) stay with the backend
+@SpringBootApplication
+public class ReactiveApiApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveApiApplication.class, args);
+  }
+}
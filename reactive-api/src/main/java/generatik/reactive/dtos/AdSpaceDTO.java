@@ -0,0 +1,16 @@
+package generatik.reactive.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import generatik.reactive.entities.adspace.*;
+
+// same json as the backend's AdSpaceDTO, clients can switch between the two apis
+public record AdSpaceDTO(
+    @JsonProperty("id") Long id,
+    @JsonProperty("name") String name,
+    @JsonProperty("pricePerDay") Integer pricePerDay,
+    @JsonProperty("city") City city,
+    @JsonProperty("address") String address,
+    @JsonProperty("availabilityStatus") AvailabilityStatus availabilityStatus,
+    @JsonProperty("type") AdSpaceType type) {
+}
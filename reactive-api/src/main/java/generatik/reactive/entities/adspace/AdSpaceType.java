@@ -0,0 +1,8 @@
+package generatik.reactive.entities.adspace;
+
+public enum AdSpaceType {
+  Billboard,
+  BusStop,
+  MallDisplay,
+  TransitAd
+}
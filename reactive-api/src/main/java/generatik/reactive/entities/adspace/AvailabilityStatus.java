@@ -0,0 +1,7 @@
+package generatik.reactive.entities.adspace;
+
+public enum AvailabilityStatus {
+  Available,
+  Booked,
+  Maintenance
+}
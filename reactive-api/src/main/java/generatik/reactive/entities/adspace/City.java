@@ -0,0 +1,13 @@
+package generatik.reactive.entities.adspace;
+
+public enum City {
+  Bucuresti,
+  Cluj,
+  Roman,
+  Brasov,
+  Sibiu,
+  Constanta,
+  Craiova,
+  Iasi,
+  Suceava
+}
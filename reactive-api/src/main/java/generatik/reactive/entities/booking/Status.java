@@ -0,0 +1,7 @@
+package generatik.reactive.entities.booking;
+
+public enum Status {
+  Pending,
+  Approved,
+  Rejected
+}
@@ -0,0 +1,83 @@
+package generatik.reactive.repos;
+
+import java.util.Optional;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import generatik.reactive.dtos.AdSpaceDTO;
+import generatik.reactive.entities.adspace.AdSpaceType;
+import generatik.reactive.entities.adspace.AvailabilityStatus;
+import generatik.reactive.entities.adspace.City;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// same queries as the backend's AdSpaceRepository (keyset pages over idx_ad_spaces_city_type),
+// in plain sql straight into the dto, rows are emitted as the driver decodes them
+@Repository
+public class AdSpaceReadRepository {
+  // rows asked from postgres at a time, through a portal, instead of the whole result in one message
+  static final int FETCH_SIZE = 100;
+
+  private static final String SELECT_AD_SPACES = """
+      select id, name, price_per_day, city, address, availability_status, type
+      from ad_spaces
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  public AdSpaceReadRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  // available ad spaces with id > afterId, ordered by id
+  public Flux<AdSpaceDTO> findAvailable(Optional<AdSpaceType> type, Optional<City> city, long afterId, int limit) {
+    var sql = new StringBuilder(SELECT_AD_SPACES)
+        .append(" where availability_status = :status and id > :afterId");
+    city.ifPresent(c -> sql.append(" and city = :city"));
+    type.ifPresent(t -> sql.append(" and type = :type"));
+    sql.append(" order by id limit :limit");
+
+    var spec = databaseClient.sql(sql.toString())
+        .bind("status", AvailabilityStatus.Available.name())
+        .bind("afterId", afterId)
+        .bind("limit", limit);
+    if (city.isPresent()) {
+      spec = spec.bind("city", city.get().name());
+    }
+    if (type.isPresent()) {
+      spec = spec.bind("type", type.get().name());
+    }
+    return page(spec.filter(statement -> statement.fetchSize(FETCH_SIZE))
+        .map(AdSpaceReadRepository::toDTO)
+        .all(), limit);
+  }
+
+  // the connection goes back to the pool only once the result is fully read, so the page is
+  // read at the database's pace, not at the client's: without this every slow client would
+  // hold one of the pool's connections for as long as it takes to download its answer
+  // rows the client is not ready for wait here, at most one page (the query's limit)
+  static <T> Flux<T> page(Flux<T> rows, int limit) {
+    return rows.onBackpressureBuffer(limit);
+  }
+
+  public Mono<AdSpaceDTO> findById(long id) {
+    return databaseClient.sql(SELECT_AD_SPACES + " where id = :id")
+        .bind("id", id)
+        .map(AdSpaceReadRepository::toDTO)
+        .one();
+  }
+
+  // enums are stored by name, as the backend's @Enumerated(EnumType.STRING) writes them
+  private static AdSpaceDTO toDTO(Readable row) {
+    return new AdSpaceDTO(
+        row.get("id", Long.class),
+        row.get("name", String.class),
+        row.get("price_per_day", Integer.class),
+        City.valueOf(row.get("city", String.class)),
+        row.get("address", String.class),
+        AvailabilityStatus.valueOf(row.get("availability_status", String.class)),
+        AdSpaceType.valueOf(row.get("type", String.class)));
+  }
+}
@@ -0,0 +1,56 @@
+package generatik.reactive.repos;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import generatik.reactive.dtos.BookingDTO;
+import generatik.reactive.entities.booking.Status;
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+
+// the backend's booking pages (BookingRepository.findDTOPage / findDTOPageByStatus), streamed
+@Repository
+public class BookingReadRepository {
+
+  private static final String SELECT_BOOKINGS = """
+      select id, ad_space_id, advertiser_name, advertiser_email, start_date, end_date, created_at, status, total_cost
+      from bookings
+      """;
+
+  private final DatabaseClient databaseClient;
+
+  public BookingReadRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  // bookings with id > afterId, ordered by id; with a status served by idx_bookings_status (status, id)
+  public Flux<BookingDTO> findPage(Optional<Status> status, long afterId, int limit) {
+    var spec = status.isPresent()
+        ? databaseClient.sql(SELECT_BOOKINGS + " where status = :status and id > :afterId order by id limit :limit")
+            .bind("status", status.get().name())
+        : databaseClient.sql(SELECT_BOOKINGS + " where id > :afterId order by id limit :limit");
+    return AdSpaceReadRepository.page(spec.bind("afterId", afterId)
+        .bind("limit", limit)
+        .filter(statement -> statement.fetchSize(AdSpaceReadRepository.FETCH_SIZE))
+        .map(BookingReadRepository::toDTO)
+        .all(), limit);
+  }
+
+  private static BookingDTO toDTO(Readable row) {
+    var status = row.get("status", String.class);
+    return new BookingDTO(
+        row.get("id", Long.class),
+        row.get("ad_space_id", Long.class),
+        row.get("advertiser_name", String.class),
+        row.get("advertiser_email", String.class),
+        row.get("start_date", LocalDate.class),
+        row.get("end_date", LocalDate.class),
+        row.get("created_at", LocalDateTime.class),
+        status == null ? null : Status.valueOf(status),
+        row.get("total_cost", Integer.class));
+  }
+}
@@ -0,0 +1,83 @@
+package generatik.reactive.routers;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import generatik.reactive.dtos.AdSpaceDTO;
+import generatik.reactive.entities.adspace.AdSpaceType;
+import generatik.reactive.entities.adspace.City;
+import generatik.reactive.repos.AdSpaceReadRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// the backend's GET /api/v1/ad-spaces and /api/v1/ad-spaces/{id}, non-blocking
+// a json array by default, one object per line with Accept: application/x-ndjson;
+// either way each ad space is written out as soon as it is read and the client is ready for it
+@RestController
+@RequestMapping("/api/v1/ad-spaces")
+public class AdSpaceController {
+  private static final Logger logger = LoggerFactory.getLogger(AdSpaceController.class);
+  static final int DEFAULT_PAGE_SIZE = 100;
+  // a page may wait in memory while a slow client reads it (AdSpaceReadRepository.page)
+  static final int MAX_PAGE_SIZE = 1_000;
+  static final String NDJSON = "application/x-ndjson";
+
+  private final AdSpaceReadRepository adSpaceRepository;
+
+  public AdSpaceController(AdSpaceReadRepository adSpaceRepository) {
+    this.adSpaceRepository = adSpaceRepository;
+  }
+
+  // keyset paged like the backend, but the headers are gone before the last row is known,
+  // so there is no X-Next-Cursor: the next page starts after the last id received
+  @GetMapping(value = "", produces = { MediaType.APPLICATION_JSON_VALUE, NDJSON })
+  public Flux<AdSpaceDTO> getAllAdSpaces(
+      @RequestParam(name = "type", required = false) AdSpaceType type,
+      @RequestParam(name = "city", required = false) City city,
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestParam(name = "limit", required = false) Integer limit) {
+    logger.info("GET /api/v1/ad-spaces called with type={}, city={}, after={}, limit={}", type, city, after, limit);
+
+    int pageSize = pageSize(limit);
+    return adSpaceRepository.findAvailable(
+        Optional.ofNullable(type),
+        Optional.ofNullable(city),
+        after == null ? 0L : after,
+        pageSize);
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<AdSpaceDTO>> getAdSpaceById(@PathVariable Long id) {
+    logger.info("GET /api/v1/ad-spaces/{} called", id);
+
+    return adSpaceRepository.findById(id)
+        .map(ResponseEntity::ok)
+        .switchIfEmpty(Mono.fromSupplier(() -> {
+          logger.warn("Ad space {} not found", id);
+          return ResponseEntity.notFound().build();
+        }));
+  }
+
+  // same rules as the backend's listings, with the higher cap
+  static int pageSize(Integer limit) {
+    int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+    if (pageSize < 1) { // edge case, an empty / negative page makes no sense
+      logger.warn("Listing failed: invalid limit {}", limit);
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "limit must be at least 1");
+    }
+    return Math.min(pageSize, MAX_PAGE_SIZE);
+  }
+}
@@ -0,0 +1,40 @@
+package generatik.reactive.routers;
+
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import generatik.reactive.dtos.BookingDTO;
+import generatik.reactive.entities.booking.Status;
+import generatik.reactive.repos.BookingReadRepository;
+import reactor.core.publisher.Flux;
+
+// the backend's GET /api/v1/booking-requests, non-blocking, paged like the ad spaces
+@RestController
+@RequestMapping("/api/v1/booking-requests")
+public class BookingController {
+  private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+
+  private final BookingReadRepository bookingRepository;
+
+  public BookingController(BookingReadRepository bookingRepository) {
+    this.bookingRepository = bookingRepository;
+  }
+
+  @GetMapping(value = "", produces = { MediaType.APPLICATION_JSON_VALUE, AdSpaceController.NDJSON })
+  public Flux<BookingDTO> getAll(
+      @RequestParam(name = "status", required = false) Status status,
+      @RequestParam(name = "after", required = false) Long after,
+      @RequestParam(name = "limit", required = false) Integer limit) {
+    logger.info("GET /api/v1/booking-requests called with status={}, after={}, limit={}", status, after, limit);
+
+    int pageSize = AdSpaceController.pageSize(limit);
+    return bookingRepository.findPage(Optional.ofNullable(status), after == null ? 0L : after, pageSize);
+  }
+}
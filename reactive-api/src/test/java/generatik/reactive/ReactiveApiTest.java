@@ -0,0 +1,148 @@
+package generatik.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import generatik.reactive.dtos.AdSpaceDTO;
+import generatik.reactive.dtos.BookingDTO;
+
+// the context is closed after the class, not by the jvm's shutdown hook: the netty server and
+// the r2dbc pool are disposed while the fork is still running, nothing is left for surefire to
+// wait on at exit (server.shutdown=immediate in the test profile)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@DirtiesContext
+class ReactiveApiTest {
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private DatabaseClient databaseClient;
+
+  // the schema may hold the backend's seed / test rows, the same ones are written each time
+  @BeforeEach
+  void seed() {
+    databaseClient.sql("delete from bookings").then()
+        .then(databaseClient.sql("delete from ad_spaces").then())
+        .then(databaseClient.sql("""
+            insert into ad_spaces (id, name, price_per_day, city, address, availability_status, type) values
+              (1, 'Times Square', 300, 'Bucuresti', 'Piata Unirii 1', 'Available', 'Billboard'),
+              (2, 'Mall Entrance', 200, 'Cluj', 'Iulius Mall', 'Available', 'MallDisplay'),
+              (3, 'Bus Stop', 100, 'Cluj', 'Str. Victoriei', 'Maintenance', 'BusStop'),
+              (4, 'Billboard Cluj', 250, 'Cluj', 'Calea Turzii 10', 'Available', 'Billboard')
+            """).then())
+        .then(databaseClient.sql("""
+            insert into bookings (id, ad_space_id, advertiser_name, advertiser_email, start_date, end_date,
+              created_at, status, total_cost) values
+              (1, 1, 'Acme', 'acme@acme.com', date '2030-01-01', date '2030-01-03', now(), 'Pending', 600),
+              (2, 2, 'Globex', 'globex@globex.com', date '2030-01-01', date '2030-01-02', now(), 'Approved', 200),
+              (3, 4, 'Initech', 'initech@initech.com', date '2030-02-01', date '2030-02-02', now(), 'Pending', 250)
+            """).then())
+        .block();
+  }
+
+  // GET /api/v1/ad-spaces -> only the available ones, ordered by id
+  @Test
+  void testsAdSpacesGetList() {
+    var spaces = webTestClient.get().uri("/api/v1/ad-spaces")
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(AdSpaceDTO.class)
+        .returnResult()
+        .getResponseBody();
+    assertEquals(List.of(1L, 2L, 4L), spaces.stream().map(AdSpaceDTO::id).toList());
+  }
+
+  @Test
+  void testsAdSpacesFiltersAndPages() {
+    webTestClient.get().uri("/api/v1/ad-spaces?city=Cluj&type=Billboard")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].name").isEqualTo("Billboard Cluj");
+
+    // the next page starts after the last id received
+    webTestClient.get().uri("/api/v1/ad-spaces?after=1&limit=1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].id").isEqualTo(2);
+
+    webTestClient.get().uri("/api/v1/ad-spaces?limit=0")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+
+  // one json object per line, same fields as the array
+  @Test
+  void testsAdSpacesNdjson() {
+    var body = webTestClient.get().uri("/api/v1/ad-spaces?city=Bucuresti")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBody(String.class)
+        .returnResult()
+        .getResponseBody();
+    var lines = body.strip().split("\n");
+    assertEquals(1, lines.length);
+    assertEquals(true, lines[0].contains("\"name\":\"Times Square\""));
+  }
+
+  @Test
+  void testsAdSpaceGet() {
+    webTestClient.get().uri("/api/v1/ad-spaces/2")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.name").isEqualTo("Mall Entrance")
+        .jsonPath("$.city").isEqualTo("Cluj")
+        .jsonPath("$.pricePerDay").isEqualTo(200);
+
+    webTestClient.get().uri("/api/v1/ad-spaces/999")
+        .exchange()
+        .expectStatus().isNotFound();
+  }
+
+  @Test
+  void testsBookingsGetAll() {
+    var bookings = webTestClient.get().uri("/api/v1/booking-requests")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBodyList(BookingDTO.class)
+        .returnResult()
+        .getResponseBody();
+    assertEquals(List.of(1L, 2L, 3L), bookings.stream().map(BookingDTO::id).toList());
+    assertEquals(600, bookings.get(0).totalCost());
+    assertEquals(1L, bookings.get(0).adSpaceId());
+
+    webTestClient.get().uri("/api/v1/booking-requests?status=Pending&after=1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].id").isEqualTo(3)
+        .jsonPath("$[0].status").isEqualTo("Pending")
+        .jsonPath("$[0].startDate").isEqualTo("2030-02-01");
+
+    webTestClient.get().uri("/api/v1/booking-requests?status=Unknown")
+        .exchange()
+        .expectStatus().isBadRequest();
+  }
+}
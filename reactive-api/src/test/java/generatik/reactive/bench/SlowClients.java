@@ -0,0 +1,143 @@
+package generatik.reactive.bench;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+// the client side of SlowClientsBenchmark, in its own jvm: both ends of 10k sockets don't fit
+// in one process' open file limit
+// `clients` connections, opened `connectsPerTick` at a time; each sends one GET and reads the
+// answer `readBytes` at a time every `tickMillis` (a phone on a very bad network); once the
+// server closes, it starts over
+// one thread and one shared buffer for all of them, so the client costs next to nothing
+// prints "stats <open> <completed> <ok> <failed> <bytes>" every second
+public final class SlowClients {
+  static final int RECEIVE_BUFFER = 4 * 1024;
+
+  private static final class Client {
+    SocketChannel channel;
+    int status = -1;
+  }
+
+  public static void main(String[] args) throws IOException {
+    var address = new InetSocketAddress(args[0], Integer.parseInt(args[1]));
+    var request = ("GET " + args[2] + " HTTP/1.1\r\nHost: " + args[0] + "\r\nAccept: application/json\r\n"
+        + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    int clients = Integer.parseInt(args[3]);
+    int connectsPerTick = Integer.parseInt(args[4]);
+    int readBytes = Integer.parseInt(args[5]);
+    long tickMillis = Long.parseLong(args[6]);
+    long deadline = System.nanoTime() + Long.parseLong(args[7]) * 1_000_000_000L;
+
+    var selector = Selector.open();
+    var open = new ArrayList<Client>(clients);
+    var buffer = ByteBuffer.allocateDirect(readBytes);
+    long completed = 0, ok = 0, failed = 0, bytes = 0;
+    int toOpen = clients;
+    long nextReport = System.nanoTime() + 1_000_000_000L;
+
+    while (System.nanoTime() < deadline) {
+      for (int i = 0; i < connectsPerTick && toOpen > 0; i++, toOpen--) {
+        try {
+          open.add(connect(selector, address));
+        } catch (IOException ex) {
+          failed++;
+        }
+      }
+
+      // finished connects send their request, then the socket is only polled below
+      selector.selectNow();
+      for (var key : selector.selectedKeys()) {
+        var client = (Client) key.attachment();
+        try {
+          client.channel.finishConnect();
+          client.channel.write(ByteBuffer.wrap(request)); // a few dozen bytes, always fits
+          key.interestOps(0);
+        } catch (IOException ex) {
+          key.cancel();
+          client.channel.close();
+          client.channel = null;
+        }
+      }
+      selector.selectedKeys().clear();
+
+      Set<Client> done = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (var client : open) {
+        if (client.channel == null) {
+          done.add(client);
+          continue;
+        }
+        if (!client.channel.isConnected()) {
+          continue;
+        }
+        buffer.clear();
+        int n;
+        try {
+          n = client.channel.read(buffer);
+        } catch (IOException ex) {
+          n = -2;
+        }
+        if (n > 0) {
+          bytes += n;
+          if (client.status < 0 && n >= 12) { // "HTTP/1.1 200"
+            var head = new byte[3];
+            buffer.get(9, head);
+            client.status = Integer.parseInt(new String(head, StandardCharsets.US_ASCII));
+          }
+        } else if (n < 0) {
+          done.add(client);
+        }
+      }
+      open.removeIf(done::contains);
+      for (var client : done) {
+        if (client.channel != null) {
+          client.channel.close();
+        }
+        completed++;
+        if (client.status == 200) {
+          ok++;
+        } else {
+          failed++;
+        }
+        toOpen++; // and again
+      }
+      selector.selectNow(); // flush the cancelled keys of closed channels
+
+      if (System.nanoTime() >= nextReport) {
+        System.out.printf("stats %d %d %d %d %d%n", open.size(), completed, ok, failed, bytes);
+        System.out.flush();
+        nextReport += 1_000_000_000L;
+      }
+      try {
+        Thread.sleep(tickMillis);
+      } catch (InterruptedException ex) {
+        return;
+      }
+    }
+    for (var client : open) {
+      if (client.channel != null) {
+        client.channel.close();
+      }
+    }
+  }
+
+  private static Client connect(Selector selector, InetSocketAddress address) throws IOException {
+    var client = new Client();
+    client.channel = SocketChannel.open();
+    client.channel.configureBlocking(false);
+    // small window: the server feels the slow reader instead of the kernel buffering the whole answer
+    client.channel.setOption(StandardSocketOptions.SO_RCVBUF, RECEIVE_BUFFER);
+    client.channel.connect(address);
+    client.channel.register(selector, SelectionKey.OP_CONNECT, client);
+    return client;
+  }
+}
@@ -0,0 +1,111 @@
+package generatik.reactive.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import generatik.reactive.ReactiveApiApplication;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufAllocatorMetricProvider;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+
+// what 10k concurrent slow clients cost the reactive api: server threads, heap, netty's
+// direct buffers and postgres connections, sampled while SlowClients (a child jvm) keeps
+// that many sockets open, each reading its answer at a few dozen bytes per second
+// the clients connect bench.ramp per second, so the server keeps up with the new requests
+// and what is measured is the cost of holding them, not of a connect storm
+// the app gets a fresh schema (test profile) with bench.ad-spaces rows
+// run with: ./mvnw test -Dtest=SlowClientsBenchmark -Dbench=true
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class SlowClientsBenchmark {
+  static final int CLIENTS = Integer.getInteger("bench.clients", 10_000);
+  static final int AD_SPACES = Integer.getInteger("bench.ad-spaces", 10_000);
+  static final int PAGE_SIZE = Integer.getInteger("bench.limit", 100); // ~15 KB of json per answer
+  static final int RAMP = Integer.getInteger("bench.ramp", 50); // new clients per second
+  static final int READ_BYTES = Integer.getInteger("bench.read-bytes", 64); // per second, ~4 min per answer
+  static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("bench.seconds", 300));
+  static final Duration SAMPLE_EVERY = Duration.ofSeconds(10);
+
+  @Test
+  void holdTenThousandSlowClients() throws Exception {
+    try (var app = new SpringApplicationBuilder(ReactiveApiApplication.class)
+        .profiles("test")
+        .properties(
+            "server.port=0",
+            "logging.level.generatik=warn")
+        .run()) {
+      var db = app.getBean(DatabaseClient.class);
+      db.sql("""
+          insert into ad_spaces (id, name, price_per_day, city, address, availability_status, type)
+          select i, 'Ad space ' || i, 100 + i % 400,
+            (array['Bucuresti','Cluj','Roman','Brasov','Sibiu','Constanta','Craiova','Iasi','Suceava'])[1 + i % 9],
+            'Strada ' || i, 'Available', (array['Billboard','BusStop','MallDisplay','TransitAd'])[1 + i % 4]
+          from generate_series(1, :count) i
+          """).bind("count", AD_SPACES).then().block();
+      var pool = (ConnectionPool) app.getBean(ConnectionFactory.class);
+      int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+
+      var java = new File(System.getProperty("java.home"), "bin/java").getPath();
+      var clients = new ProcessBuilder(java, "-Xmx256m", "-cp", System.getProperty("java.class.path"),
+          SlowClients.class.getName(), "localhost", String.valueOf(port), "/api/v1/ad-spaces?limit=" + PAGE_SIZE,
+          String.valueOf(CLIENTS), String.valueOf(RAMP), String.valueOf(READ_BYTES), "1000",
+          String.valueOf(DURATION.toSeconds()))
+          .redirectErrorStream(true)
+          .start();
+      var lastStats = new AtomicReference<String[]>(new String[] { "stats", "0", "0", "0", "0", "0" });
+      Thread.ofVirtual().start(() -> {
+        try (var lines = new BufferedReader(new InputStreamReader(clients.getInputStream()))) {
+          String line;
+          while ((line = lines.readLine()) != null) {
+            if (line.startsWith("stats ")) {
+              lastStats.set(line.split(" "));
+            } else {
+              System.out.println("[clients] " + line);
+            }
+          }
+        } catch (Exception ignored) {
+          // the child is gone
+        }
+      });
+
+      var rows = new ArrayList<String>();
+      long begin = System.nanoTime();
+      while (clients.isAlive()) {
+        Thread.sleep(SAMPLE_EVERY.toMillis());
+        System.gc(); // live heap, not garbage not yet collected
+        var metrics = pool.getMetrics().orElseThrow();
+        long backends = db.sql("select count(*) as n from pg_stat_activity where backend_type = 'client backend'")
+            .map(row -> row.get("n", Long.class))
+            .one()
+            .onErrorReturn(-1L) // no free connection within max-acquire-time
+            .block();
+        var stats = lastStats.get();
+        rows.add("%4ds %8s %9s %7s %7s %8d %8.1f %10.1f %6d %6d %6d %6d".formatted(
+            Duration.ofNanos(System.nanoTime() - begin).toSeconds(),
+            stats[1], stats[2], stats[3], stats[4],
+            ManagementFactory.getThreadMXBean().getThreadCount(),
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1e6,
+            ((ByteBufAllocatorMetricProvider) ByteBufAllocator.DEFAULT).metric().usedDirectMemory() / 1e6,
+            metrics.allocatedSize(), metrics.acquiredSize(), metrics.pendingAcquireSize(), backends));
+        System.out.println(rows.get(rows.size() - 1));
+      }
+
+      System.out.printf("%n%d slow clients (%d more per second, reading %d B/s), pages of %d ad spaces, %ds%n",
+          CLIENTS, RAMP, READ_BYTES, PAGE_SIZE, DURATION.toSeconds());
+      System.out.printf("%5s %8s %9s %7s %7s %8s %8s %10s %6s %6s %6s %6s%n", "", "open", "answered", "200",
+          "failed", "threads", "heap MB", "direct MB", "pool", "busy", "queued", "pg");
+      rows.forEach(System.out::println);
+    }
+  }
+}